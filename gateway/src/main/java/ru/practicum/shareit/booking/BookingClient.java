@@ -11,6 +11,8 @@ import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,31 +20,34 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpComponentsClientHttpRequestFactory serverRequestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> serverRequestFactory)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getBookingsByStatus(Integer userId, BookingStatus state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getBookingsByStatus(Integer userId, BookingStatus state, Integer from, Integer size,
+                                                 String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?state={state}&from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingsByOwnerAndStatus(Integer userId, BookingStatus state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getBookingsByOwnerAndStatus(Integer userId, BookingStatus state, Integer from, Integer size,
+                                                 String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "state", state.name(),
                 "from", from,
                 "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("/owner?state={state}&from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
     public ResponseEntity<Object> getBooking(Integer userId, Integer bookingId) {
@@ -53,11 +58,20 @@ public class BookingClient extends BaseClient {
         return post("", userId, requestDto);
     }
 
+    public ResponseEntity<Object> createBookings(Integer userId, List<BookItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
     public ResponseEntity<Object> updateBookingStatus(Integer userId, Integer bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> updateBookingStatuses(Integer userId, List<Integer> bookingIds, Boolean approved) {
+        Map<String, Object> parameters = Map.of("approved", approved);
+        return patch("/status?approved={approved}", userId, parameters, bookingIds);
+    }
+
     public void deleteBooking(Integer bookingId) {
         delete("/" + bookingId);
     }
@@ -10,8 +10,13 @@ import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingStatus;
 import ru.practicum.shareit.validation.Create;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -28,9 +33,10 @@ public class BookingController {
             @RequestParam(value = "from", defaultValue = "0")
             @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "10")
-            @Positive Integer size) {
+            @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
         BookingStatus status = checkStatus(stateText);
-        return bookingClient.getBookingsByStatus(userId, status, from, size);
+        return bookingClient.getBookingsByStatus(userId, status, from, size, cursor);
     }
 
     @GetMapping(value = "/owner")
@@ -40,9 +46,10 @@ public class BookingController {
             @RequestParam(value = "from", defaultValue = "0")
             @PositiveOrZero Integer from,
             @RequestParam(value = "size", defaultValue = "10")
-            @Positive Integer size) {
+            @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
         BookingStatus status = checkStatus(stateText);
-        return bookingClient.getBookingsByOwnerAndStatus(userId, status, from, size);
+        return bookingClient.getBookingsByOwnerAndStatus(userId, status, from, size, cursor);
     }
 
     @GetMapping(value = "/{bookingId}")
@@ -60,6 +67,12 @@ public class BookingController {
         return bookingClient.createBooking(userId, bookingRequestDto);
     }
 
+    @PostMapping(value = "/batch")
+    public ResponseEntity<Object> createBookings(
+            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            @RequestBody @NotEmpty @Size(max = 100) List<@Valid BookItemRequestDto> bookingRequestDtos) {
+        return bookingClient.createBookings(userId, bookingRequestDtos);
+    }
 
     @PatchMapping(value = "/{bookingId}")
     public ResponseEntity<Object> updateBookingStatus(
@@ -70,6 +83,14 @@ public class BookingController {
         return bookingClient.updateBookingStatus(userId, bookingId, approved);
     }
 
+    @PatchMapping(value = "/status")
+    public ResponseEntity<Object> updateBookingStatuses(
+            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            @RequestParam Boolean approved,
+            @RequestBody @NotEmpty @Size(max = 100) List<@NotNull Integer> bookingIds) {
+        return bookingClient.updateBookingStatuses(userId, bookingIds, approved);
+    }
+
     @DeleteMapping(value = "/{bookingId}")
     public void deleteBooking(@PathVariable Integer bookingId) {
         bookingClient.deleteBooking(bookingId);
@@ -1,14 +1,31 @@
 package ru.practicum.shareit.client;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
+@Slf4j
 public class BaseClient {
+    /**
+     * Заголовки ответа сервера, которые шлюз передаёт клиенту.
+     */
+    private static final List<String> PASSTHROUGH_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.LOCATION, "X-Next-Cursor");
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -75,20 +92,99 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Добавляет к пути параметр курсора страницы, если он передан.
+     */
+    protected static String withCursor(String path, Map<String, Object> parameters, @Nullable String cursor) {
+        if (cursor == null) {
+            return path;
+        }
+        parameters.put("cursor", cursor);
+        return path + "&cursor={cursor}";
+    }
+
+    /**
+     * Открывает потоковый ответ сервера и возвращает ответ шлюза, тело которого копирует поток клиенту
+     * по мере поступления, сбрасывая каждую порцию. Статус и тип содержимого сервера проверяются до того,
+     * как шлюз зафиксирует свой ответ: ошибка сервера передаётся клиенту как есть, с его статусом и телом,
+     * а успешный ответ не того типа заменяется на 502.
+     */
+    protected ResponseEntity<StreamingResponseBody> stream(String path, @Nullable Integer userId, MediaType accept) {
+        ClientHttpResponse response = open(path, userId, accept);
+        try {
+            HttpStatus status = response.getStatusCode();
+            if (!status.is2xxSuccessful()) {
+                ResponseEntity.BodyBuilder responseBuilder = passthroughHeaders(status, response.getHeaders());
+                byte[] body = StreamUtils.copyToByteArray(response.getBody());
+                response.close();
+                return body.length == 0 ? responseBuilder.build() : responseBuilder.body(out -> out.write(body));
+            }
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType == null || !accept.isCompatibleWith(contentType)) {
+                log.error("Сервер вернул " + contentType + " вместо " + accept + " на запрос " + path);
+                response.close();
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+            }
+            return passthroughHeaders(status, response.getHeaders()).body(out -> {
+                try (response) {
+                    copyFlushing(response.getBody(), out);
+                }
+            });
+        } catch (IOException e) {
+            response.close();
+            throw new ResourceAccessException("Не удалось прочитать ответ сервера на запрос " + path, e);
+        } catch (RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Отправляет GET-запрос тем же путём, что и {@link RestTemplate}, но не закрывает ответ:
+     * тело потокового ответа читается уже после возврата из метода контроллера.
+     */
+    private ClientHttpResponse open(String path, @Nullable Integer userId, MediaType accept) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(accept));
+            if (userId != null) {
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }
+            return request.execute();
+        } catch (IOException e) {
+            throw new ResourceAccessException("Не удалось выполнить запрос к серверу " + uri, e);
+        }
+    }
+
+    private static void copyFlushing(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+
+    /**
+     * Отправляет запрос на сервер и отдаёт клиенту тело ответа как есть, байтами, без разбора JSON.
+     * Проверяется только запрос, ответ сервера считается корректным.
+     */
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Integer userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
 
-        ResponseEntity<Object> shareitServerResponse;
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return passthrough(e.getStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return passthrough(shareitServerResponse.getStatusCode(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
     }
 
     private HttpHeaders defaultHeaders(Integer userId) {
@@ -101,17 +197,29 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    /**
+     * Ответ шлюза с телом сервера. Из заголовков сервера переносятся только {@link #PASSTHROUGH_HEADERS}:
+     * длину и кодирование передачи контейнер сервлетов выставит сам.
+     */
+    private static ResponseEntity<Object> passthrough(HttpStatus status, @Nullable HttpHeaders serverHeaders,
+                                                      @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = passthroughHeaders(status, serverHeaders);
+        if (body == null || body.length == 0) {
+            return responseBuilder.build();
         }
+        return responseBuilder.body(body);
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    private static ResponseEntity.BodyBuilder passthroughHeaders(HttpStatus status, @Nullable HttpHeaders serverHeaders) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
+        if (serverHeaders != null) {
+            for (String name : PASSTHROUGH_HEADERS) {
+                List<String> values = serverHeaders.get(name);
+                if (values != null) {
+                    responseBuilder.header(name, values.toArray(new String[0]));
+                }
+            }
         }
-
-        return responseBuilder.build();
+        return responseBuilder;
     }
 }
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * HTTP-клиенты шлюза с пулами соединений к серверу ShareIt. Обычные запросы идут через общий пул,
+ * а потоки событий, которые держат соединение всё время подписки, — через отдельный пул со своим
+ * пределом, чтобы подписчики не занимали соединения, нужные остальным запросам.
+ * Простаивающие соединения закрываются фоновым потоком, а состояние пулов публикуется в метриках
+ * actuator как {@code shareit.server.pool.*} и {@code shareit.server.events.pool.*}.
+ */
+@Configuration
+@EnableConfigurationProperties(ServerHttpClientProperties.class)
+public class ServerHttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public PoolingHttpClientConnectionManager serverConnectionManager(ServerHttpClientProperties properties) {
+        return connectionManager(properties.getMaxTotal(), properties.getMaxPerRoute(), properties);
+    }
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public CloseableHttpClient serverHttpClient(PoolingHttpClientConnectionManager serverConnectionManager,
+                                                ServerHttpClientProperties properties) {
+        return httpClient(serverConnectionManager, properties.getReadTimeout(), properties);
+    }
+
+    /**
+     * Фабрика запросов для обычных клиентов; таймауты берутся из настроек HTTP-клиента.
+     */
+    @Bean
+    @Primary
+    public HttpComponentsClientHttpRequestFactory serverRequestFactory(CloseableHttpClient serverHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverEventsConnectionManager(ServerHttpClientProperties properties) {
+        return connectionManager(properties.getEventsMaxTotal(), properties.getEventsMaxTotal(), properties);
+    }
+
+    /**
+     * Клиент потоков событий. Поток может молчать сколько угодно, поэтому ожидание ответа не ограничено.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverEventsHttpClient(
+            @Qualifier("serverEventsConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            ServerHttpClientProperties properties) {
+        return httpClient(connectionManager, Duration.ZERO, properties);
+    }
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory serverEventsRequestFactory(
+            @Qualifier("serverEventsHttpClient") CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            @Qualifier("serverEventsConnectionManager") PoolingHttpClientConnectionManager serverEventsConnectionManager) {
+        return registry -> {
+            poolGauges(registry, serverConnectionManager, "shareit.server.pool.");
+            poolGauges(registry, serverEventsConnectionManager, "shareit.server.events.pool.");
+        };
+    }
+
+    private static PoolingHttpClientConnectionManager connectionManager(int maxTotal, int maxPerRoute,
+                                                                        ServerHttpClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        return connectionManager;
+    }
+
+    private static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                  Duration readTimeout, ServerHttpClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setConnectionRequestTimeout((int) properties.getAcquireTimeout().toMillis())
+                        .setSocketTimeout((int) readTimeout.toMillis())
+                        .build())
+                .setKeepAliveStrategy(keepAliveStrategy(properties.getKeepAlive()))
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getMaxIdle().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Держит соединение столько, сколько разрешил сервер в заголовке Keep-Alive,
+     * а если сервер срок не указал — {@code keepAlive}.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(Duration keepAlive) {
+        long fallback = keepAlive.toMillis();
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration < 0 ? fallback : duration;
+        };
+    }
+
+    private static void poolGauges(MeterRegistry registry, PoolingHttpClientConnectionManager connectionManager,
+                                   String prefix) {
+        poolGauge(registry, connectionManager, prefix, "leased", PoolStats::getLeased);
+        poolGauge(registry, connectionManager, prefix, "pending", PoolStats::getPending);
+        poolGauge(registry, connectionManager, prefix, "available", PoolStats::getAvailable);
+        poolGauge(registry, connectionManager, prefix, "max", PoolStats::getMax);
+    }
+
+    private static void poolGauge(MeterRegistry registry,
+                                  PoolingHttpClientConnectionManager connectionManager,
+                                  String prefix, String name, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(prefix + name, connectionManager,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description("Соединения с сервером ShareIt: " + name)
+                .register(registry);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки пулов соединений с сервером ShareIt.
+ */
+@ConfigurationProperties(prefix = "shareit-server.http")
+@Getter
+@Setter
+public class ServerHttpClientProperties {
+    /**
+     * Наибольшее число соединений в пуле.
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Наибольшее число соединений с одним адресом. Шлюз ходит на один сервер, поэтому по умолчанию
+     * равно {@link #maxTotal}.
+     */
+    private int maxPerRoute = 200;
+
+    /**
+     * Наибольшее число соединений в отдельном пуле потоков событий, то есть одновременных подписчиков.
+     */
+    private int eventsMaxTotal = 100;
+
+    /**
+     * Время ожидания установки соединения.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Время ожидания свободного соединения из пула.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Время ожидания ответа сервера.
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Сколько держать соединение открытым, если сервер не прислал Keep-Alive.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Простаивающие дольше соединения закрываются фоновым потоком.
+     */
+    private Duration maxIdle = Duration.ofSeconds(30);
+
+    /**
+     * Через сколько простоя соединение проверяется перед выдачей из пула.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.event;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+
+@Service
+public class EventClient extends BaseClient {
+    private static final String API_PREFIX = "/events";
+
+    public EventClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                       @Qualifier("serverEventsRequestFactory")
+                       HttpComponentsClientHttpRequestFactory serverEventsRequestFactory) {
+        super(
+                builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(() -> serverEventsRequestFactory)
+                        .build()
+        );
+    }
+
+    /**
+     * Передаёт события пользователя из SSE-потока сервера клиенту, пока поток не закроется.
+     */
+    public ResponseEntity<StreamingResponseBody> streamEvents(Integer userId) {
+        return stream("", userId, MediaType.TEXT_EVENT_STREAM);
+    }
+}
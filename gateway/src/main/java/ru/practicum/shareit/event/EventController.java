@@ -0,0 +1,39 @@
+package ru.practicum.shareit.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Контроллер для подписки на события пользователя.
+ */
+@RestController
+@RequestMapping(path = "/events")
+@RequiredArgsConstructor
+@Slf4j
+public class EventController {
+
+    /**
+     * Клиент событий сервера.
+     */
+    private final EventClient eventClient;
+
+    /**
+     * Подписка на события пользователя: новые бронирования его вещей, решения по его бронированиям
+     * и ответы на его запросы. События передаются в формате text/event-stream.
+     *
+     * @param userId Идентификатор пользователя
+     * @return Поток событий
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> subscribe(@RequestHeader("X-Sharer-User-Id") Integer userId) {
+        log.debug("Начата подписка на события пользователя - " + userId);
+        return eventClient.streamEvents(userId);
+    }
+}
@@ -11,6 +11,8 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,27 +20,36 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpComponentsClientHttpRequestFactory serverRequestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> serverRequestFactory)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getItems(Integer userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getItems(Integer userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
                 "size", size
-        );
-        return get("?from={from}&size={size}", userId, parameters);
+        ));
+        return get(withCursor("?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
     public ResponseEntity<Object> getItem(Integer itemId, Integer userId) {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getCalendar(Integer itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from.toString(),
+                "to", to.toString()
+        );
+        return get("/" + itemId + "/calendar?from={from}&to={to}", null, parameters);
+    }
+
     public ResponseEntity<Object> createItem(Integer userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
@@ -51,13 +62,25 @@ public class ItemClient extends BaseClient {
         return delete("/" + itemId);
     }
 
-    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size) {
+    public ResponseEntity<Object> searchItem(String text, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        ));
+        return get(withCursor("/search?text={text}&from={from}&size={size}", parameters, cursor), null, parameters);
+    }
+
+    public ResponseEntity<Object> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end,
+                                                       Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
+                "start", start.toString(),
+                "end", end.toString(),
                 "from", from,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return get("/available?text={text}&start={start}&end={end}&from={from}&size={size}", null, parameters);
     }
 
     public ResponseEntity<Object> createComment(Integer itemId, Integer userId, CommentDto commentDto) {
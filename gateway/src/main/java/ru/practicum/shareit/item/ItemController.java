@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +14,7 @@ import ru.practicum.shareit.validation.Update;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/items")
@@ -50,6 +52,22 @@ public class ItemController {
         return itemClient.getItem(itemId, userId);
     }
 
+    /**
+     * Календарь занятости предмета за период.
+     *
+     * @param itemId Идентификатор предмета
+     * @param from   Начало периода
+     * @param to     Конец периода
+     * @return Объединённые интервалы подтверждённых и ожидающих броней
+     */
+    @GetMapping("/{itemId}/calendar")
+    public ResponseEntity<Object> getCalendar(
+            @PathVariable @PositiveOrZero int itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemClient.getCalendar(itemId, from, to);
+    }
+
     /**
      * Обновление данных предмета.
      *
@@ -85,8 +103,9 @@ public class ItemController {
     @GetMapping
     public ResponseEntity<Object> getAll(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
                                          @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                         @RequestParam(defaultValue = "5") @Positive Integer size) {
-        return itemClient.getItems(userId, from, size);
+                                         @RequestParam(defaultValue = "5") @Positive Integer size,
+                                         @RequestParam(required = false) String cursor) {
+        return itemClient.getItems(userId, from, size, cursor);
     }
 
     /**
@@ -98,8 +117,27 @@ public class ItemController {
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestParam @NotNull String text,
                                               @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                              @RequestParam(defaultValue = "5") @Positive Integer size) {
-        return itemClient.searchItem(text, from, size);
+                                              @RequestParam(defaultValue = "5") @Positive Integer size,
+                                              @RequestParam(required = false) String cursor) {
+        return itemClient.searchItem(text, from, size, cursor);
+    }
+
+    /**
+     * Поиск доступных предметов, свободных в заданном интервале.
+     *
+     * @param text  Текст поиска
+     * @param start Начало интервала
+     * @param end   Конец интервала
+     * @return список предметов
+     */
+    @GetMapping("/available")
+    public ResponseEntity<Object> searchAvailableItems(
+            @RequestParam @NotNull String text,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(defaultValue = "5") @Positive Integer size) {
+        return itemClient.searchAvailableItems(text, start, end, from, size);
     }
 
     /**
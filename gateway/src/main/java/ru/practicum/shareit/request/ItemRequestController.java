@@ -40,14 +40,16 @@ public class ItemRequestController {
      * @param userId Уникальный идентификатор пользователя
      * @param from   Индекс первого элемента для пагинации
      * @param size   Количество элементов для отображения
+     * @param cursor Курсор страницы; если передан, параметр from не используется
      * @return Коллекция объектов ItemRequestDto, представляющих запросы других пользователей
      */
     @GetMapping("/all")
     public ResponseEntity<Object> findAll(
             @RequestHeader("X-Sharer-User-Id") Integer userId,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "5") @Positive Integer size) {
-        return itemRequestClient.getAll(userId, from, size);
+            @RequestParam(defaultValue = "5") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
+        return itemRequestClient.getAll(userId, from, size, cursor);
     }
 
     /**
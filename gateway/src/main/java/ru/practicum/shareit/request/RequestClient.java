@@ -9,25 +9,27 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         HttpComponentsClientHttpRequestFactory serverRequestFactory) {
         super(
                 builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> serverRequestFactory)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getAll(Integer userId, int from, int size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> getAll(Integer userId, int from, int size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "from", from,
-                "size", size);
-        return get("/all?from={from}&size={size}", userId, parameters);
+                "size", size));
+        return get(withCursor("/all?from={from}&size={size}", parameters, cursor), userId, parameters);
     }
 
     public ResponseEntity<Object> createItemRequest(Integer userId, ItemRequestDto requestDto) {
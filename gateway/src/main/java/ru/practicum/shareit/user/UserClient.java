@@ -3,29 +3,46 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      HttpComponentsClientHttpRequestFactory serverRequestFactory) {
         super(builder
                 .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                .requestFactory(() -> serverRequestFactory)
                 .build()
         );
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public ResponseEntity<Object> getUsers(Integer size, String cursor) {
+        if (cursor == null) {
+            return get("");
+        }
+        Map<String, Object> parameters = new HashMap<>(Map.of("size", size));
+        return get(withCursor("?size={size}", parameters, cursor), null, parameters);
+    }
+
+    /**
+     * Передаёт NDJSON-поток пользователей с сервера клиенту, не собирая ответ в памяти.
+     */
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return stream("", null, MediaType.APPLICATION_NDJSON);
     }
 
     public ResponseEntity<Object> getUser(Integer userId) {
@@ -2,13 +2,16 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
+import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 
 /**
@@ -18,6 +21,7 @@ import javax.validation.constraints.PositiveOrZero;
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
 @Slf4j
+@Validated
 public class UserController {
 
     /**
@@ -76,12 +80,27 @@ public class UserController {
     }
 
     /**
-     * Получение списка всех пользователей.
+     * Получение списка пользователей. Без курсора возвращается весь список,
+     * с курсором - страница, ссылка на следующую передаётся в заголовке X-Next-Cursor.
      *
+     * @param size   Размер страницы
+     * @param cursor Курсор страницы
      * @return Список пользователей
      */
     @GetMapping
-    public ResponseEntity<Object> getAll() {
-        return userClient.getUsers();
+    public ResponseEntity<Object> getAll(@RequestParam(defaultValue = "20") @Positive Integer size,
+                                         @RequestParam(required = false) String cursor) {
+        return userClient.getUsers(size, cursor);
+    }
+
+    /**
+     * Потоковая выгрузка всех пользователей в формате NDJSON, по одному на строку.
+     *
+     * @return Поток пользователей
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.debug("Начата потоковая выгрузка пользователей");
+        return userClient.streamUsers();
     }
 }
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class EventControllerTest {
+    MockRestServiceServer server;
+    MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplateBuilder builder = new RestTemplateBuilder(
+                rest -> server = MockRestServiceServer.bindTo(rest).build());
+        EventClient eventClient = new EventClient("http://localhost:9090", builder,
+                new HttpComponentsClientHttpRequestFactory());
+        mvc = MockMvcBuilders.standaloneSetup(new EventController(eventClient)).build();
+    }
+
+    @Test
+    void testSubscribe_whenServerStreams_thenCopyEvents() throws Exception {
+        server.expect(requestTo("http://localhost:9090/events"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess("event:BOOKING_CREATED\ndata:{}\n\n", MediaType.TEXT_EVENT_STREAM));
+
+        MvcResult result = mvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("event:BOOKING_CREATED\ndata:{}\n\n"));
+    }
+
+    @Test
+    void testSubscribe_whenUserNotFound_thenPassNotFoundThrough() throws Exception {
+        server.expect(requestTo("http://localhost:9090/events"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"error\":\"Пользователь с id=99 не найден\"}"));
+
+        MvcResult result = mvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 99)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error", is("Пользователь с id=99 не найден")));
+    }
+
+    @Test
+    void testSubscribe_whenServerRespondsWithWrongContentType_thenBadGateway() throws Exception {
+        server.expect(requestTo("http://localhost:9090/events"))
+                .andRespond(withSuccess("<html></html>", MediaType.TEXT_HTML));
+
+        mvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadGateway());
+    }
+}
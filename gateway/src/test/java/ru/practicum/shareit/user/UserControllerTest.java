@@ -0,0 +1,68 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class UserControllerTest {
+    MockRestServiceServer server;
+    MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplateBuilder builder = new RestTemplateBuilder(
+                rest -> server = MockRestServiceServer.bindTo(rest).build());
+        UserClient userClient = new UserClient("http://localhost:9090", builder,
+                new HttpComponentsClientHttpRequestFactory());
+        mvc = MockMvcBuilders.standaloneSetup(new UserController(userClient)).build();
+    }
+
+    @Test
+    void testStreamAll_whenServerStreams_thenCopyStream() throws Exception {
+        server.expect(requestTo("http://localhost:9090/users"))
+                .andExpect(header("Accept", MediaType.APPLICATION_NDJSON_VALUE))
+                .andRespond(withSuccess("{\"id\":1}\n{\"id\":2}\n", MediaType.APPLICATION_NDJSON));
+
+        MvcResult result = mvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+        server.verify();
+    }
+
+    @Test
+    void testStreamAll_whenServerRespondsWithClientError_thenPassErrorThrough() throws Exception {
+        server.expect(requestTo("http://localhost:9090/users"))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"error\":\"Некорректный запрос\"}"));
+
+        MvcResult result = mvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error", is("Некорректный запрос")));
+    }
+}
@@ -1,19 +1,28 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.validation.Create;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.Collection;
+import javax.validation.constraints.Size;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +54,26 @@ public class BookingController {
         return BookingMapper.toBookingResponseDto(bookingService.save(userId, booking));
     }
 
+    /**
+     * Создает пакет бронирований одного пользователя.
+     *
+     * @param userId      идентификатор пользователя, создающего бронирования
+     * @param bookingDtos объекты, содержащие информацию о бронированиях
+     * @return результаты создания в порядке переданных бронирований
+     */
+    @PostMapping("/batch")
+    @Validated(Create.class)
+    public List<BookingBatchResultDto> saveAll(
+            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            @RequestBody @NotEmpty(groups = Create.class) @Size(max = 100, groups = Create.class)
+            List<@Valid BookingDto> bookingDtos) {
+
+        List<Booking> bookings = bookingDtos.stream()
+                .map(BookingMapper::toBooking)
+                .collect(Collectors.toList());
+        return bookingService.saveAll(userId, bookings);
+    }
+
     /**
      * Изменяет статус бронирования.
      *
@@ -61,6 +90,22 @@ public class BookingController {
         return BookingMapper.toBookingResponseDto(booking);
     }
 
+    /**
+     * Изменяет статус нескольких бронирований владельца.
+     *
+     * @param userId     идентификатор владельца предметов
+     * @param approved   флаг, указывающий на одобрение или отклонение бронирований
+     * @param bookingIds идентификаторы бронирований
+     * @return результаты по каждому идентификатору в порядке запроса
+     */
+    @PatchMapping("/status")
+    public List<BookingStatusResultDto> changeStatuses(
+            @RequestHeader("X-Sharer-User-Id") Integer userId,
+            @RequestParam boolean approved,
+            @RequestBody @NotEmpty @Size(max = 100) List<@NotNull Integer> bookingIds) {
+        return bookingService.changeStatuses(userId, bookingIds, approved);
+    }
+
     /**
      * Получает информацию о бронировании по его идентификатору.
      *
@@ -72,8 +117,7 @@ public class BookingController {
     public BookingResponseDto getById(
             @RequestHeader("X-Sharer-User-Id") Integer userId,
             @PathVariable int bookingId) {
-        Booking booking = bookingService.getById(userId, bookingId);
-        return BookingMapper.toBookingResponseDto(booking);
+        return bookingService.getById(userId, bookingId);
     }
 
     /**
@@ -81,14 +125,16 @@ public class BookingController {
      *
      * @param userId идентификатор пользователя, для которого нужно получить список бронирований
      * @param state  фильтр статуса бронирования
+     * @param cursor курсор страницы; если передан, параметр from не используется
      * @return коллекция объектов BookingResponseDto, представляющих список бронирований
      */
     @GetMapping
-    public Collection<BookingResponseDto> getAll(
+    public ResponseEntity<List<BookingResponseDto>> getAll(
             @RequestHeader("X-Sharer-User-Id") Integer userId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "5") @Positive Integer size) {
+            @RequestParam(defaultValue = "5") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
 
         BookingStatus bookingStatus;
         if (BookingStatus.contains(state)) {
@@ -96,10 +142,12 @@ public class BookingController {
         } else {
             bookingStatus = BookingStatus.UNKNOWN;
         }
-        Collection<Booking> bookings = bookingService.getAll(userId, bookingStatus, from, size);
-        return bookings.stream()
-                .map(BookingMapper::toBookingResponseDto)
-                .collect(Collectors.toList());
+        if (cursor != null) {
+            Slice<BookingResponseDto> page = bookingService.getAll(userId, bookingStatus, PageCursor.parse(cursor),
+                    size);
+            return PageCursor.toResponse(page, BookingResponseDto::getId);
+        }
+        return ResponseEntity.ok(List.copyOf(bookingService.getAll(userId, bookingStatus, from, size)));
     }
 
     /**
@@ -107,14 +155,16 @@ public class BookingController {
      *
      * @param ownerId идентификатор владельца предмета, для которого нужно получить список бронирований.
      * @param state   фильтр статуса бронирования.
+     * @param cursor  курсор страницы; если передан, параметр from не используется.
      * @return коллекция объектов BookingResponseDto, представляющих список бронирований.
      */
     @GetMapping("/owner")
-    public Collection<BookingResponseDto> getAllByOwner(
+    public ResponseEntity<List<BookingResponseDto>> getAllByOwner(
             @RequestHeader("X-Sharer-User-Id") Integer ownerId,
             @RequestParam(defaultValue = "ALL") String state,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "5") @Positive Integer size) {
+            @RequestParam(defaultValue = "5") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
 
         BookingStatus bookingStatus;
         if (BookingStatus.contains(state)) {
@@ -122,9 +172,11 @@ public class BookingController {
         } else {
             bookingStatus = BookingStatus.UNKNOWN;
         }
-        Collection<Booking> bookings = bookingService.getAllByOwner(ownerId, bookingStatus, from, size);
-        return bookings.stream()
-                .map(BookingMapper::toBookingResponseDto)
-                .collect(Collectors.toList());
+        if (cursor != null) {
+            Slice<BookingResponseDto> page = bookingService.getAllByOwner(ownerId, bookingStatus,
+                    PageCursor.parse(cursor), size);
+            return PageCursor.toResponse(page, BookingResponseDto::getId);
+        }
+        return ResponseEntity.ok(List.copyOf(bookingService.getAllByOwner(ownerId, bookingStatus, from, size)));
     }
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Интервал брони предмета.
+ */
+@Value
+public class BookingInterval {
+    int id;
+    int itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+}
@@ -0,0 +1,213 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Индекс подтверждённых броней в памяти процесса: по дереву интервалов на каждый предмет.
+ * Проверка пересечения занимает O(log n) от числа броней предмета. Подтверждение брони
+ * резервирует интервал под монитором дерева предмета, поэтому из двух одновременных
+ * подтверждений пересекающихся броней проходит только одно; если транзакция откатится,
+ * резерв снимается. Пока индекс не построен, проверка выполняется запросом к базе.
+ * <p>
+ * Снимок базы при перестроении читается без блокировки и может не содержать резервов, сделанных
+ * во время чтения, поэтому такие резервы и их снятия запоминаются и применяются к новым деревьям
+ * перед их публикацией.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIntervalIndex {
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Идентификатор предмета -> дерево интервалов его подтверждённых броней.
+     */
+    private volatile Map<Integer, IntervalTree> trees = new ConcurrentHashMap<>();
+
+    /**
+     * Резервы и их снятия выполняются под блокировкой чтения, публикация перестроенных деревьев — под записью.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Изменения, сделанные во время перестроения; {@code null}, если индекс не перестраивается.
+     */
+    private Queue<Consumer<Map<Integer, IntervalTree>>> changesDuringRebuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Перестраивает индекс по содержимому базы при старте приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ConcurrentLinkedQueue<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<BookingInterval> all;
+        try {
+            all = bookingRepository.findAllIntervals(BookingStatus.APPROVED);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        Map<Integer, IntervalTree> rebuilt = new ConcurrentHashMap<>();
+        for (BookingInterval interval : all) {
+            rebuilt.computeIfAbsent(interval.getItemId(), id -> new IntervalTree())
+                    .insert(interval.getId(), interval.getStart(), interval.getEnd());
+        }
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            trees = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс подтверждённых броней построен, броней: " + all.size());
+    }
+
+    /**
+     * Проверяет, свободен ли предмет в интервале [start, end).
+     *
+     * @param itemId идентификатор предмета
+     * @param start  начало интервала
+     * @param end    конец интервала
+     * @return {@code true}, если ни одна подтверждённая бронь предмета не пересекает интервал
+     */
+    public boolean isFree(int itemId, LocalDateTime start, LocalDateTime end) {
+        if (!ready) {
+            return !bookingRepository.existsByItemIdAndStatusIsAndStartBeforeAndEndAfter(
+                    itemId, BookingStatus.APPROVED, end, start);
+        }
+        IntervalTree tree = trees.get(itemId);
+        if (tree == null) {
+            return true;
+        }
+        synchronized (tree) {
+            return !tree.overlaps(start, end);
+        }
+    }
+
+    /**
+     * Построен ли индекс.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Резервирует интервал подтверждаемой брони. Если текущая транзакция не будет
+     * зафиксирована, резерв снимается.
+     *
+     * @param booking подтверждаемая бронь
+     * @throws BookingOverlapException если интервал пересекается с подтверждённой бронью
+     */
+    public void reserve(Booking booking) {
+        int itemId = booking.getItem().getId();
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                if (!isFree(itemId, booking.getStart(), booking.getEnd())) {
+                    throw overlap(booking);
+                }
+            } else {
+                IntervalTree tree = trees.computeIfAbsent(itemId, id -> new IntervalTree());
+                synchronized (tree) {
+                    if (tree.overlaps(booking.getStart(), booking.getEnd())) {
+                        throw overlap(booking);
+                    }
+                    tree.insert(booking.getId(), booking.getStart(), booking.getEnd());
+                }
+            }
+            recordChange(rebuilt -> insert(rebuilt, booking));
+        } finally {
+            lock.readLock().unlock();
+        }
+        onRollback(() -> release(booking));
+    }
+
+    private void release(Booking booking) {
+        lock.readLock().lock();
+        try {
+            remove(trees, booking);
+            recordChange(rebuilt -> remove(rebuilt, booking));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Запоминает изменение, если индекс сейчас перестраивается. Вызывается под блокировкой чтения.
+     */
+    private void recordChange(Consumer<Map<Integer, IntervalTree>> change) {
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private static void insert(Map<Integer, IntervalTree> trees, Booking booking) {
+        IntervalTree tree = trees.computeIfAbsent(booking.getItem().getId(), id -> new IntervalTree());
+        synchronized (tree) {
+            tree.insert(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+    }
+
+    private static void remove(Map<Integer, IntervalTree> trees, Booking booking) {
+        IntervalTree tree = trees.get(booking.getItem().getId());
+        if (tree != null) {
+            synchronized (tree) {
+                tree.remove(booking.getId(), booking.getStart());
+            }
+        }
+    }
+
+    private static BookingOverlapException overlap(Booking booking) {
+        log.error("Предмет с id=" + booking.getItem().getId() + " уже забронирован на это время");
+        return new BookingOverlapException("Предмет с id=" + booking.getItem().getId()
+                + " уже забронирован на это время");
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Календарь занятости предмета: объединённые интервалы подтверждённых и ожидающих броней.
+ * Интервалы внутри каждого списка не пересекаются и отсортированы по началу, поэтому
+ * отсортированы и по концу.
+ */
+@Value
+public class ItemCalendar {
+    /**
+     * Интервалы подтверждённых броней.
+     */
+    List<Interval> approved;
+
+    /**
+     * Интервалы броней, ожидающих подтверждения.
+     */
+    List<Interval> waiting;
+
+    /**
+     * Полуоткрытый интервал [start, end).
+     */
+    @Value
+    public static class Interval {
+        LocalDateTime start;
+        LocalDateTime end;
+    }
+
+    /**
+     * Строит календарь по броням, отсортированным по началу.
+     *
+     * @param approved подтверждённые брони
+     * @param waiting  брони, ожидающие подтверждения
+     * @return календарь предмета
+     */
+    public static ItemCalendar of(List<BookingInterval> approved, List<BookingInterval> waiting) {
+        return new ItemCalendar(merge(approved), merge(waiting));
+    }
+
+    /**
+     * Возвращает часть календаря внутри [from, to); крайние интервалы обрезаются по границам.
+     *
+     * @param from начало периода
+     * @param to   конец периода
+     * @return календарь за период
+     */
+    public ItemCalendar between(LocalDateTime from, LocalDateTime to) {
+        return new ItemCalendar(clip(approved, from, to), clip(waiting, from, to));
+    }
+
+    private static List<Interval> merge(List<BookingInterval> bookings) {
+        List<Interval> merged = new ArrayList<>();
+        LocalDateTime start = null;
+        LocalDateTime end = null;
+        for (BookingInterval booking : bookings) {
+            if (start != null && !booking.getStart().isAfter(end)) {
+                if (booking.getEnd().isAfter(end)) {
+                    end = booking.getEnd();
+                }
+                continue;
+            }
+            if (start != null) {
+                merged.add(new Interval(start, end));
+            }
+            start = booking.getStart();
+            end = booking.getEnd();
+        }
+        if (start != null) {
+            merged.add(new Interval(start, end));
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    private static List<Interval> clip(List<Interval> intervals, LocalDateTime from, LocalDateTime to) {
+        int low = 0;
+        int high = intervals.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (intervals.get(middle).getEnd().isAfter(from)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        List<Interval> result = new ArrayList<>();
+        for (int i = low; i < intervals.size() && intervals.get(i).getStart().isBefore(to); i++) {
+            Interval interval = intervals.get(i);
+            result.add(new Interval(
+                    interval.getStart().isBefore(from) ? from : interval.getStart(),
+                    interval.getEnd().isAfter(to) ? to : interval.getEnd()));
+        }
+        return result;
+    }
+}
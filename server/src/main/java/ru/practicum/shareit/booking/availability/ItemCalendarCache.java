@@ -0,0 +1,136 @@
+package ru.practicum.shareit.booking.availability;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш календарей занятости предметов. Календарь строится при первом запросе и сбрасывается
+ * после фиксации транзакции, изменившей брони предмета. Размер кэша ограничен: при переполнении
+ * вытесняется произвольная запись. Отсутствующие предметы не запоминаются.
+ * <p>
+ * Календарь загружается вне блокировок карты. Каждый сброс увеличивает номер поколения; если за время
+ * загрузки поколение сменилось, загруженный календарь мог устареть и в кэше не остаётся.
+ */
+@Component
+@Slf4j
+public class ItemCalendarCache {
+    /**
+     * Наибольшее число календарей по умолчанию.
+     */
+    static final int MAX_SIZE = 10_000;
+
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final int maxSize;
+
+    /**
+     * Идентификатор предмета -> календарь его броней.
+     */
+    private final Map<Integer, ItemCalendar> calendars = new ConcurrentHashMap<>();
+
+    /**
+     * Номер поколения, увеличивается при каждом сбросе.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ItemCalendarCache(BookingRepository bookingRepository, ItemRepository itemRepository) {
+        this(bookingRepository, itemRepository, MAX_SIZE);
+    }
+
+    ItemCalendarCache(BookingRepository bookingRepository, ItemRepository itemRepository, int maxSize) {
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Возвращает календарь предмета, при необходимости загружая его из базы.
+     *
+     * @param itemId идентификатор предмета
+     * @return календарь предмета
+     * @throws ItemNotFoundException если предмет не найден
+     */
+    public ItemCalendar get(int itemId) {
+        ItemCalendar calendar = calendars.get(itemId);
+        if (calendar != null) {
+            return calendar;
+        }
+        long loadedAt = generation.get();
+        ItemCalendar loaded = load(itemId);
+        calendar = calendars.putIfAbsent(itemId, loaded);
+        if (calendar != null) {
+            return calendar;
+        }
+        if (generation.get() != loadedAt) {
+            calendars.remove(itemId, loaded);
+            return loaded;
+        }
+        trim(itemId);
+        return loaded;
+    }
+
+    /**
+     * Сбрасывает календарь предмета после фиксации текущей транзакции,
+     * а вне транзакции — сразу.
+     *
+     * @param itemId идентификатор предмета
+     */
+    public void evict(int itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(itemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                remove(itemId);
+            }
+        });
+    }
+
+    /**
+     * Возвращает число календарей в кэше.
+     */
+    public int size() {
+        return calendars.size();
+    }
+
+    private ItemCalendar load(int itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            log.error("Предмет с id=" + itemId + " не найден");
+            throw new ItemNotFoundException("Предмет с id=" + itemId + " не найден");
+        }
+        log.debug("Загрузка календаря предмета с id=" + itemId);
+        return ItemCalendar.of(
+                bookingRepository.findIntervalsOfItem(itemId, BookingStatus.APPROVED),
+                bookingRepository.findIntervalsOfItem(itemId, BookingStatus.WAITING));
+    }
+
+    private void remove(int itemId) {
+        generation.incrementAndGet();
+        calendars.remove(itemId);
+    }
+
+    private void trim(int keptItemId) {
+        Iterator<Integer> keys = calendars.keySet().iterator();
+        while (calendars.size() > maxSize && keys.hasNext()) {
+            int itemId = keys.next();
+            if (itemId != keptItemId) {
+                calendars.remove(itemId);
+            }
+        }
+    }
+}
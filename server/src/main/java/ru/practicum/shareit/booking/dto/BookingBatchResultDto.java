@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+/**
+ * Результат создания одной брони из пакета: созданная бронь либо причина отказа.
+ */
+@Value
+public class BookingBatchResultDto {
+    /**
+     * Созданная бронь или null, если бронь отклонена.
+     */
+    BookingResponseDto booking;
+
+    /**
+     * Причина отказа или null, если бронь создана.
+     */
+    String error;
+
+    public static BookingBatchResultDto created(BookingResponseDto booking) {
+        return new BookingBatchResultDto(booking, null);
+    }
+
+    public static BookingBatchResultDto failed(String error) {
+        return new BookingBatchResultDto(null, error);
+    }
+}
@@ -1,20 +1,48 @@
 package ru.practicum.shareit.booking.dto;
 
-import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
-@Data
-@Builder
+/**
+ * Ответ с данными брони. Содержит только идентификатор и название предмета и идентификатор
+ * арендатора, поэтому списки броней читаются запросом в этот класс без загрузки сущностей.
+ * Формат ответа: {@code {id, start, end, item: {id, name}, booker: {id}, status}}.
+ */
+@Value
 public class BookingResponseDto {
-    protected int id;
-    protected LocalDateTime start;
-    protected LocalDateTime end;
-    protected Item item;
-    protected User booker;
-    protected BookingStatus status;
+    int id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookedItem item;
+    Booker booker;
+    BookingStatus status;
+
+    public BookingResponseDto(int id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                              int itemId, String itemName, int bookerId) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = new BookedItem(itemId, itemName);
+        this.booker = new Booker(bookerId);
+        this.status = status;
+    }
+
+    /**
+     * Забронированный предмет.
+     */
+    @Value
+    public static class BookedItem {
+        int id;
+        String name;
+    }
+
+    /**
+     * Арендатор.
+     */
+    @Value
+    public static class Booker {
+        int id;
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+/**
+ * Краткая проекция брони: только идентификаторы брони и арендатора.
+ */
+@Value
+public class BookingShortDto {
+    /**
+     * Идентификатор брони.
+     */
+    int id;
+
+    /**
+     * Идентификатор пользователя, взявшего в аренду предмет.
+     */
+    int bookerId;
+}
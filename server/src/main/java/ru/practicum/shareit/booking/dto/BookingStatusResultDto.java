@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Результат смены статуса одной брони из пакета: новый статус либо причина отказа.
+ */
+@Value
+public class BookingStatusResultDto {
+    /**
+     * Идентификатор брони.
+     */
+    int bookingId;
+
+    /**
+     * Новый статус брони или null, если статус не изменён.
+     */
+    BookingStatus status;
+
+    /**
+     * Причина отказа или null, если статус изменён.
+     */
+    String error;
+
+    public static BookingStatusResultDto changed(int bookingId, BookingStatus status) {
+        return new BookingStatusResultDto(bookingId, status, null);
+    }
+
+    public static BookingStatusResultDto failed(int bookingId, String error) {
+        return new BookingStatusResultDto(bookingId, null, error);
+    }
+}
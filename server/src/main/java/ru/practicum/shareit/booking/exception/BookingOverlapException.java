@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.exception;
+
+/**
+ * Исключение, выбрасываемое, когда бронь пересекается с уже подтверждённой бронью предмета.
+ */
+public class BookingOverlapException extends RuntimeException {
+    public BookingOverlapException(String message) {
+        super(message);
+    }
+}
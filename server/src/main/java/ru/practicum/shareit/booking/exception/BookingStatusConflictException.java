@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.exception;
+
+/**
+ * Исключение, выбрасываемое, когда статус броней изменил другой запрос во время их обработки.
+ */
+public class BookingStatusConflictException extends RuntimeException {
+    public BookingStatusConflictException(String message) {
+        super(message);
+    }
+}
@@ -48,13 +48,7 @@ public class BookingMapper {
      * @return объект BookingResponseDto
      */
     public static BookingResponseDto toBookingResponseDto(Booking booking) {
-        return BookingResponseDto.builder()
-                .id(booking.getId())
-                .start(booking.getStart())
-                .end(booking.getEnd())
-                .booker(booking.getBooker())
-                .status(booking.getStatus())
-                .item(booking.getItem())
-                .build();
+        return new BookingResponseDto(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getBooker().getId());
     }
 }
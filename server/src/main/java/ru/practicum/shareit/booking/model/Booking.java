@@ -25,7 +25,8 @@ public class Booking {
      */
     @Id
     @Column(name = "booking_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     protected int id;
 
     /**
@@ -43,14 +44,14 @@ public class Booking {
     /**
      * Объект, который был забронирован.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     protected Item item;
 
     /**
      * Пользователь, который совершил бронирование.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     protected User booker;
 
@@ -1,57 +1,229 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.availability.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
-    Page<Booking> findAllByBookerIdOrderByIdDesc(int bookerId, Pageable pageable);
+    /**
+     * Выборка ответа о брони: только нужные ответу столбцы, без загрузки сущностей.
+     */
+    String RESPONSE = "select new ru.practicum.shareit.booking.dto.BookingResponseDto(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) " +
+            "from Booking b join b.item i ";
 
-    Page<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(
+    @EntityGraph(attributePaths = "item")
+    @Override
+    Optional<Booking> findById(Integer id);
+
+    /**
+     * Находит ответ о брони, если пользователь — её арендатор или владелец предмета.
+     *
+     * @param bookingId идентификатор брони
+     * @param userId    идентификатор пользователя
+     * @return ответ о брони, если она есть и доступна пользователю
+     */
+    @Query(RESPONSE + "where b.id = ?1 and (b.booker.id = ?2 or i.owner.id = ?2)")
+    Optional<BookingResponseDto> findResponse(int bookingId, int userId);
+
+    /**
+     * Возвращает брони с переданными идентификаторами, относящиеся к предметам владельца.
+     *
+     * @param bookingIds идентификаторы броней
+     * @param ownerId    идентификатор владельца предметов
+     * @return найденные брони
+     */
+    @Query("select b from Booking b join b.item i where b.id in ?1 and i.owner.id = ?2")
+    List<Booking> findAllByIdInAndItemOwnerId(Collection<Integer> bookingIds, int ownerId);
+
+    /**
+     * Меняет статус ожидающих броней владельца одним запросом.
+     *
+     * @param bookingIds идентификаторы броней
+     * @param ownerId    идентификатор владельца предметов
+     * @param from       статус, из которого разрешён переход
+     * @param to         новый статус
+     * @return количество изменённых броней
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = ?4 where b.id in ?1 and b.status = ?3 "
+            + "and b.item.id in (select i.id from Item i where i.owner.id = ?2)")
+    int updateStatusOfOwner(Collection<Integer> bookingIds, int ownerId, BookingStatus from, BookingStatus to);
+
+    /**
+     * Идентификаторы броней из списка, статус которых отличается от заданного.
+     *
+     * @param bookingIds идентификаторы броней
+     * @param status     статус
+     * @return идентификаторы броней с другим статусом
+     */
+    @Query("select b.id from Booking b where b.id in ?1 and b.status <> ?2")
+    List<Integer> findIdsWithStatusOtherThan(Collection<Integer> bookingIds, BookingStatus status);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdOrderByIdDesc(int bookerId, Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.start < ?2 and b.end > ?3")
+    Slice<BookingResponseDto> findAllByBookerIdAndStartBeforeAndEndAfter(
             int bookerId, LocalDateTime start, LocalDateTime end, Pageable pageable);
 
-    Page<Booking> findAllByBookerIdAndEndBeforeOrderByIdDesc(int bookerId, LocalDateTime end, Pageable pageable);
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.end < ?2 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdAndEndBeforeOrderByIdDesc(int bookerId, LocalDateTime end,
+                                                                         Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.start > ?2 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdAndStartAfterOrderByIdDesc(Integer userId, LocalDateTime now,
+                                                                          Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.status = ?2")
+    Slice<BookingResponseDto> findAllByBookerIdAndStatusIs(Integer userId, BookingStatus state,
+                                                           Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdOrderByIdDesc(int ownerId, Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.status = ?2")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndStatusIs(Integer ownerId, BookingStatus bookingStatus,
+                                                              Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.start < ?2 and b.end > ?3")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndStartBeforeAndEndAfter(Integer ownerId, LocalDateTime now,
+                                                                            LocalDateTime end, Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.end < ?2 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndEndBeforeOrderByIdDesc(Integer ownerId, LocalDateTime now,
+                                                                            Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.start > ?2 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndStartAfterOrderByIdDesc(Integer ownerId, LocalDateTime now,
+                                                                             Pageable pageable);
+
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.id < ?2 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdAndIdLessThanOrderByIdDesc(int bookerId, int lastId,
+                                                                          Pageable pageable);
 
-    Page<Booking> findAllByBookerIdAndStartAfterOrderByIdDesc(Integer userId, LocalDateTime now, Pageable pageable);
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.status = ?2 and b.id < ?3 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdAndStatusIsAndIdLessThanOrderByIdDesc(
+            int bookerId, BookingStatus status, int lastId, Pageable pageable);
 
-    Page<Booking> findAllByBookerIdAndStatusIs(Integer userId, BookingStatus state, Pageable pageable);
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.start < ?2 and b.end > ?3 and b.id < ?4 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdAndStartBeforeAndEndAfterAndIdLessThanOrderByIdDesc(
+            int bookerId, LocalDateTime start, LocalDateTime end, int lastId, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdOrderByIdDesc(int ownerId, Pageable pageable);
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.end < ?2 and b.id < ?3 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdAndEndBeforeAndIdLessThanOrderByIdDesc(
+            int bookerId, LocalDateTime end, int lastId, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndStatusIs(Integer ownerId, BookingStatus bookingStatus, Pageable pageable);
+    @Query(RESPONSE + "where b.booker.id = ?1 and b.start > ?2 and b.id < ?3 order by b.id desc")
+    Slice<BookingResponseDto> findAllByBookerIdAndStartAfterAndIdLessThanOrderByIdDesc(
+            int bookerId, LocalDateTime start, int lastId, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfter(Integer ownerId, LocalDateTime now,
-                                                                LocalDateTime end, Pageable pageable);
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.id < ?2 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndIdLessThanOrderByIdDesc(int ownerId, int lastId,
+                                                                             Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndEndBeforeOrderByIdDesc(Integer ownerId, LocalDateTime now, Pageable pageable);
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.status = ?2 and b.id < ?3 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndStatusIsAndIdLessThanOrderByIdDesc(
+            int ownerId, BookingStatus status, int lastId, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndStartAfterOrderByIdDesc(Integer ownerId, LocalDateTime now, Pageable pageable);
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.start < ?2 and b.end > ?3 and b.id < ?4 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndStartBeforeAndEndAfterAndIdLessThanOrderByIdDesc(
+            int ownerId, LocalDateTime start, LocalDateTime end, int lastId, Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.end < ?2 and b.id < ?3 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndEndBeforeAndIdLessThanOrderByIdDesc(
+            int ownerId, LocalDateTime end, int lastId, Pageable pageable);
+
+    @Query(RESPONSE + "where i.owner.id = ?1 and b.start > ?2 and b.id < ?3 order by b.id desc")
+    Slice<BookingResponseDto> findAllByItemOwnerIdAndStartAfterAndIdLessThanOrderByIdDesc(
+            int ownerId, LocalDateTime start, int lastId, Pageable pageable);
+
+    boolean existsByItemIdAndStatusIsAndStartBeforeAndEndAfter(int itemId, BookingStatus status,
+                                                               LocalDateTime end, LocalDateTime start);
+
+    @Query("select new ru.practicum.shareit.booking.availability.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.status = ?1")
+    List<BookingInterval> findAllIntervals(BookingStatus status);
+
+    @Query("select new ru.practicum.shareit.booking.availability.BookingInterval(b.id, b.item.id, b.start, b.end) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2 " +
+            "order by b.start")
+    List<BookingInterval> findIntervalsOfItem(int itemId, BookingStatus status);
 
     Collection<Booking> findByBookerIdAndItemIdAndStatusIsAndEndBefore(int bookerId, int itemId,
                                                                        BookingStatus status, LocalDateTime end);
 
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.item.id = ?2 " +
-            "and b.start < ?3 " +
-            "and b.status = ?4 " +
+    @Query("select new ru.practicum.shareit.booking.dto.BookingShortDto(b.id, b.booker.id) " +
+            "from Booking b " +
+            "where b.item.id = ?1 " +
+            "and b.status = ?3 " +
+            "and b.start < ?2 " +
             "order by b.start desc")
-    List<Booking> findLastBooking(int userId, int itemId,
-                                  LocalDateTime currentTime, BookingStatus status);
+    List<BookingShortDto> findLastBookingsOfItem(int itemId, LocalDateTime currentTime,
+                                                 BookingStatus status, Pageable pageable);
 
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
-            "and b.item.id = ?2 " +
-            "and b.start > ?3 " +
-            "and b.status = ?4 " +
+    @Query("select new ru.practicum.shareit.booking.dto.BookingShortDto(b.id, b.booker.id) " +
+            "from Booking b " +
+            "where b.item.id = ?1 " +
+            "and b.status = ?3 " +
+            "and b.start > ?2 " +
             "order by b.start")
-    List<Booking> findNextBooking(int userId, int itemId,
-                                  LocalDateTime currentTime, BookingStatus status);
+    List<BookingShortDto> findNextBookingsOfItem(int itemId, LocalDateTime currentTime,
+                                                 BookingStatus status, Pageable pageable);
+
+    /**
+     * Находит последнюю начавшуюся бронь предмета.
+     *
+     * @param itemId      идентификатор предмета
+     * @param currentTime момент времени, до которого бронь должна начаться
+     * @param status      статус брони
+     * @return краткая проекция брони, если она есть
+     */
+    default Optional<BookingShortDto> findLastBooking(int itemId, LocalDateTime currentTime, BookingStatus status) {
+        return findLastBookingsOfItem(itemId, currentTime, status, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    /**
+     * Находит ближайшую будущую бронь предмета.
+     *
+     * @param itemId      идентификатор предмета
+     * @param currentTime момент времени, после которого бронь должна начаться
+     * @param status      статус брони
+     * @return краткая проекция брони, если она есть
+     */
+    default Optional<BookingShortDto> findNextBooking(int itemId, LocalDateTime currentTime, BookingStatus status) {
+        return findNextBookingsOfItem(itemId, currentTime, status, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 " +
+            "and b.status = ?3 " +
+            "and b.start = (select max(lb.start) from Booking lb " +
+            "where lb.item.id = b.item.id and lb.status = ?3 and lb.start < ?2)")
+    List<Booking> findLastBookings(Collection<Integer> itemIds,
+                                   LocalDateTime currentTime, BookingStatus status);
+
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 " +
+            "and b.status = ?3 " +
+            "and b.start = (select min(nb.start) from Booking nb " +
+            "where nb.item.id = b.item.id and nb.status = ?3 and nb.start > ?2)")
+    List<Booking> findNextBookings(Collection<Integer> itemIds,
+                                   LocalDateTime currentTime, BookingStatus status);
 }
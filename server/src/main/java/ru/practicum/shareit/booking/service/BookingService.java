@@ -1,9 +1,15 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Интерфейс, предоставляющий методы для работы с бронированиями.
@@ -18,6 +24,16 @@ public interface BookingService {
      */
     Booking save(int userId, Booking booking);
 
+    /**
+     * Сохраняет пакет бронирований одного пользователя в одной транзакции.
+     * Брони, не прошедшие проверку, не сохраняются и не мешают остальным.
+     *
+     * @param userId   идентификатор пользователя, совершившего бронирование
+     * @param bookings бронирования, которые необходимо сохранить
+     * @return результаты в порядке переданных бронирований
+     */
+    List<BookingBatchResultDto> saveAll(int userId, List<Booking> bookings);
+
     /**
      * Изменяет статус бронирования.
      *
@@ -28,6 +44,16 @@ public interface BookingService {
      */
     Booking changeStatus(int userId, int bookingId, boolean approved);
 
+    /**
+     * Изменяет статус нескольких ожидающих бронирований владельца одним запросом.
+     *
+     * @param userId     идентификатор владельца предметов
+     * @param bookingIds идентификаторы бронирований
+     * @param approved   флаг одобрения бронирований
+     * @return результаты по каждому идентификатору в порядке запроса
+     */
+    List<BookingStatusResultDto> changeStatuses(int userId, List<Integer> bookingIds, boolean approved);
+
     /**
      * Получает бронирование по его идентификатору.
      *
@@ -35,7 +61,7 @@ public interface BookingService {
      * @param bookingId идентификатор бронирования
      * @return бронирование с указанным идентификатором
      */
-    Booking getById(Integer userId, int bookingId);
+    BookingResponseDto getById(Integer userId, int bookingId);
 
     /**
      * Получает все бронирования пользователя с заданным статусом.
@@ -46,7 +72,7 @@ public interface BookingService {
      * @param size   количество элементов для отображения
      * @return коллекция бронирований пользователя с указанным статусом
      */
-    Collection<Booking> getAll(Integer userId, BookingStatus state, Integer from, Integer size);
+    Collection<BookingResponseDto> getAll(Integer userId, BookingStatus state, Integer from, Integer size);
 
     /**
      * Получает все бронирования объектов владельцы с заданным статусом.
@@ -57,5 +83,27 @@ public interface BookingService {
      * @param size          количество элементов для отображения
      * @return коллекция бронирований объектов владельца с указанным статусом
      */
-    Collection<Booking> getAllByOwner(Integer ownerId, BookingStatus bookingStatus, Integer from, Integer size);
+    Collection<BookingResponseDto> getAllByOwner(Integer ownerId, BookingStatus bookingStatus, Integer from, Integer size);
+
+    /**
+     * Получает страницу бронирований пользователя после курсора, по убыванию идентификатора.
+     *
+     * @param userId идентификатор пользователя
+     * @param state  статус бронирований
+     * @param cursor курсор страницы
+     * @param size   количество элементов для отображения
+     * @return срез бронирований с признаком наличия следующей страницы
+     */
+    Slice<BookingResponseDto> getAll(Integer userId, BookingStatus state, PageCursor cursor, Integer size);
+
+    /**
+     * Получает страницу бронирований предметов владельца после курсора, по убыванию идентификатора.
+     *
+     * @param ownerId       идентификатор владельца предметов
+     * @param bookingStatus статус бронирований
+     * @param cursor        курсор страницы
+     * @param size          количество элементов для отображения
+     * @return срез бронирований с признаком наличия следующей страницы
+     */
+    Slice<BookingResponseDto> getAllByOwner(Integer ownerId, BookingStatus bookingStatus, PageCursor cursor, Integer size);
 }
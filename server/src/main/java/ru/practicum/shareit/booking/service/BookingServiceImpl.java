@@ -2,24 +2,46 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingIntervalIndex;
+import ru.practicum.shareit.booking.availability.ItemCalendarCache;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.exception.BookingBadRequestException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.exception.BookingStatusConflictException;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.event.UserEvent;
+import ru.practicum.shareit.event.UserEventBroker;
 import ru.practicum.shareit.item.exception.ItemNotAvailableException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -29,162 +51,384 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemCalendarCache itemCalendarCache;
+    private final UserCache userCache;
+    private final UserEventBroker userEvents;
 
     @Transactional
     @Override
     public Booking save(int userId, Booking booking) {
-        User booker = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
+        User booker = userRepository.getReferenceById(userId);
 
         int itemId = booking.getItem().getId();
-        Item item = itemRepository.findById(booking.getItem().getId())
+        Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> {
                     log.error("Предмет с id=" + itemId + " не найден");
                     return new ItemNotFoundException("Предмет с id=" + itemId + " не найден");
                 });
 
-        if (item.getOwner().getId() == userId) {
-            log.error("Нельзя забронировать предмет у самого себя");
-            throw new BookingNotFoundException("Нельзя забронировать предмет у самого себя");
-        }
-        if (!item.getAvailable()) {
-            log.error("Предмет недоступен для бронирования");
-            throw new ItemNotAvailableException("Предмет недоступен для бронирования");
-        }
-        if (booking.getStart().isAfter(booking.getEnd()) || booking.getStart().equals(booking.getEnd())) {
-            log.error("Дата окончания брони не может быть раньше даты начала брони");
-            throw new BookingBadRequestException("Дата окончания брони не может быть раньше даты начала брони");
-        }
+        checkBookable(userId, booking, item);
         booking.setStatus(BookingStatus.WAITING);
         booking.setBooker(booker);
         booking.setItem(item);
-        return bookingRepository.save(booking);
+        itemCalendarCache.evict(itemId);
+        Booking saved = bookingRepository.save(booking);
+        userEvents.publish(item.getOwner().getId(), UserEvent.bookingCreated(saved.getId(), itemId));
+        return saved;
+    }
+
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> saveAll(int userId, List<Booking> bookings) {
+        User booker = userRepository.getReferenceById(userId);
+
+        Set<Integer> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        Map<Integer, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<String> errors = new ArrayList<>(bookings.size());
+        List<Booking> accepted = new ArrayList<>();
+        for (Booking booking : bookings) {
+            int itemId = booking.getItem().getId();
+            Item item = items.get(itemId);
+            try {
+                if (item == null) {
+                    log.error("Предмет с id=" + itemId + " не найден");
+                    throw new ItemNotFoundException("Предмет с id=" + itemId + " не найден");
+                }
+                checkBookable(userId, booking, item);
+            } catch (ItemNotFoundException | ItemNotAvailableException | BookingNotFoundException
+                     | BookingBadRequestException | BookingOverlapException e) {
+                errors.add(e.getMessage());
+                continue;
+            }
+            booking.setStatus(BookingStatus.WAITING);
+            booking.setBooker(booker);
+            booking.setItem(item);
+            itemCalendarCache.evict(itemId);
+            accepted.add(booking);
+            errors.add(null);
+        }
+        bookingRepository.saveAll(accepted);
+        accepted.forEach(booking -> userEvents.publish(booking.getItem().getOwner().getId(),
+                UserEvent.bookingCreated(booking.getId(), booking.getItem().getId())));
+
+        List<BookingBatchResultDto> results = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            String error = errors.get(i);
+            results.add(error == null
+                    ? BookingBatchResultDto.created(BookingMapper.toBookingResponseDto(bookings.get(i)))
+                    : BookingBatchResultDto.failed(error));
+        }
+        return results;
     }
 
     @Transactional
     @Override
     public Booking changeStatus(int userId, int bookingId, boolean approved) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        int updated;
+        try {
+            updated = bookingRepository.updateStatusOfOwner(List.of(bookingId), userId, BookingStatus.WAITING, status);
+        } catch (DataIntegrityViolationException e) {
+            log.error("Бронь с id=" + bookingId + " пересекается с подтверждённой бронью");
+            throw new BookingOverlapException("Бронь с id=" + bookingId + " пересекается с подтверждённой бронью");
+        }
+        if (updated == 0) {
+            throw refusedStatusChange(userId, bookingId);
+        }
 
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> {
                     log.error("Бронь с id=" + bookingId + " не найдена");
                     return new BookingNotFoundException("Бронь с id=" + bookingId + " не найдена");
                 });
+        if (approved) {
+            bookingIntervalIndex.reserve(booking);
+        }
+        itemCalendarCache.evict(booking.getItem().getId());
+        userEvents.publish(booking.getBooker().getId(),
+                UserEvent.bookingStatusChanged(bookingId, booking.getItem().getId(), status));
+        return booking;
+    }
 
-        if (booking.getItem().getOwner().getId() != userId) {
-            log.error("Пользователь с id=" + userId + "не может подтвердить бронь у не своего предмета");
-            throw new BookingNotFoundException("Пользователь с id=" + userId
-                    + " не может подтвердить бронь у не своего предмета");
+    @Transactional
+    @Override
+    public List<BookingStatusResultDto> changeStatuses(int userId, List<Integer> bookingIds, boolean approved) {
+        Set<Integer> ids = new LinkedHashSet<>(bookingIds);
+        Map<Integer, Booking> bookings = bookingRepository.findAllByIdInAndItemOwnerId(ids, userId).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        if (bookings.isEmpty()) {
+            checkUserExists(userId);
         }
-        if (!booking.getStatus().equals(BookingStatus.WAITING)) {
-            throw new BookingBadRequestException("Бронь уже подтверждена или отклонена");
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+
+        Map<Integer, String> errors = new HashMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int bookingId : ids) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                errors.put(bookingId, "Бронь с id=" + bookingId + " не найдена");
+                continue;
+            }
+            if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                errors.put(bookingId, "Бронь уже подтверждена или отклонена");
+                continue;
+            }
+            if (approved) {
+                try {
+                    bookingIntervalIndex.reserve(booking);
+                } catch (BookingOverlapException e) {
+                    errors.put(bookingId, e.getMessage());
+                    continue;
+                }
+            }
+            accepted.add(bookingId);
         }
 
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        if (!accepted.isEmpty()) {
+            int updated;
+            try {
+                updated = bookingRepository.updateStatusOfOwner(accepted, userId, BookingStatus.WAITING, status);
+            } catch (DataIntegrityViolationException e) {
+                log.error("Брони " + accepted + " пересекаются с подтверждёнными бронями");
+                throw new BookingOverlapException("Часть броней пересекается с уже подтверждёнными бронями");
+            }
+            if (updated != accepted.size()) {
+                throw statusChangedConcurrently(accepted, status);
+            }
+            accepted.forEach(bookingId -> {
+                Booking booking = bookings.get(bookingId);
+                itemCalendarCache.evict(booking.getItem().getId());
+                userEvents.publish(booking.getBooker().getId(),
+                        UserEvent.bookingStatusChanged(bookingId, booking.getItem().getId(), status));
+            });
         }
-        return bookingRepository.save(booking);
+
+        return ids.stream()
+                .map(bookingId -> errors.containsKey(bookingId)
+                        ? BookingStatusResultDto.failed(bookingId, errors.get(bookingId))
+                        : BookingStatusResultDto.changed(bookingId, status))
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     @Override
-    public Booking getById(Integer userId, int bookingId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
-
-        Booking booking = bookingRepository.findById(bookingId)
+    public BookingResponseDto getById(Integer userId, int bookingId) {
+        return bookingRepository.findResponse(bookingId, userId)
                 .orElseThrow(() -> {
+                    checkUserExists(userId);
                     log.error("Бронь с id=" + bookingId + " не найдена");
                     return new BookingNotFoundException("Бронь с id=" + bookingId + " не найдена");
                 });
+    }
 
-        if (!(booking.getItem().getOwner().getId() == userId) && !(booking.getBooker().getId() == userId)) {
-            log.error("Бронь с id=" + bookingId + " не найдена");
-            throw new BookingNotFoundException("Бронь с id=" + bookingId + " не найдена");
+    @Transactional(readOnly = true)
+    @Override
+    public Collection<BookingResponseDto> getAll(Integer userId, BookingStatus state, Integer from, Integer size) {
+        Slice<BookingResponseDto> page = findByBooker(userId, state, PageRequest.of(from / size, size));
+        if (!page.hasContent()) {
+            checkUserExists(userId);
         }
+        return page.getContent();
+    }
 
-        return booking;
+    @Transactional(readOnly = true)
+    @Override
+    public Collection<BookingResponseDto> getAllByOwner(Integer ownerId, BookingStatus bookingStatus,
+                                             Integer from, Integer size) {
+        Slice<BookingResponseDto> page = findByOwner(ownerId, bookingStatus, PageRequest.of(from / size, size));
+        if (!page.hasContent()) {
+            checkUserExists(ownerId);
+        }
+        return page.getContent();
     }
 
     @Transactional(readOnly = true)
     @Override
-    public Collection<Booking> getAll(Integer userId, BookingStatus state, Integer from, Integer size) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
+    public Slice<BookingResponseDto> getAll(Integer userId, BookingStatus state, PageCursor cursor, Integer size) {
+        Slice<BookingResponseDto> page = findByBookerBefore(userId, state, cursor.idBefore(), PageRequest.of(0, size));
+        if (!page.hasContent()) {
+            checkUserExists(userId);
+        }
+        return page;
+    }
 
-        PageRequest pageRequest = PageRequest.of(from / size, size);
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<BookingResponseDto> getAllByOwner(Integer ownerId, BookingStatus bookingStatus,
+                                        PageCursor cursor, Integer size) {
+        Slice<BookingResponseDto> page = findByOwnerBefore(ownerId, bookingStatus, cursor.idBefore(),
+                PageRequest.of(0, size));
+        if (!page.hasContent()) {
+            checkUserExists(ownerId);
+        }
+        return page;
+    }
 
+    private Slice<BookingResponseDto> findByBooker(int userId, BookingStatus state, PageRequest pageRequest) {
         switch (state) {
             case WAITING:
-                return bookingRepository.findAllByBookerIdAndStatusIs(userId, BookingStatus.WAITING, pageRequest)
-                        .getContent();
+                return bookingRepository.findAllByBookerIdAndStatusIs(userId, BookingStatus.WAITING, pageRequest);
             case REJECTED:
-                return bookingRepository.findAllByBookerIdAndStatusIs(userId, BookingStatus.REJECTED, pageRequest)
-                        .getContent();
+                return bookingRepository.findAllByBookerIdAndStatusIs(userId, BookingStatus.REJECTED, pageRequest);
             case ALL:
-                return bookingRepository.findAllByBookerIdOrderByIdDesc(userId, pageRequest).getContent();
+                return bookingRepository.findAllByBookerIdOrderByIdDesc(userId, pageRequest);
             case CURRENT:
                 return bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(
-                        userId, LocalDateTime.now(), LocalDateTime.now(), pageRequest).getContent();
+                        userId, LocalDateTime.now(), LocalDateTime.now(), pageRequest);
             case PAST:
                 return bookingRepository.findAllByBookerIdAndEndBeforeOrderByIdDesc(
-                        userId, LocalDateTime.now(), pageRequest).getContent();
+                        userId, LocalDateTime.now(), pageRequest);
             case FUTURE:
                 return bookingRepository.findAllByBookerIdAndStartAfterOrderByIdDesc(userId, LocalDateTime.now(),
-                        pageRequest).getContent();
+                        pageRequest);
             default:
                 throw new BookingBadRequestException("Unknown state: UNSUPPORTED_STATUS");
         }
     }
 
-    @Transactional(readOnly = true)
-    @Override
-    public Collection<Booking> getAllByOwner(Integer ownerId, BookingStatus bookingStatus,
-                                             Integer from, Integer size) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + ownerId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + ownerId + " не найден");
-                });
-
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-
+    private Slice<BookingResponseDto> findByOwner(int ownerId, BookingStatus bookingStatus, PageRequest pageRequest) {
         switch (bookingStatus) {
             case WAITING:
-                return bookingRepository.findAllByItemOwnerIdAndStatusIs(ownerId, BookingStatus.WAITING, pageRequest)
-                        .getContent();
+                return bookingRepository.findAllByItemOwnerIdAndStatusIs(ownerId, BookingStatus.WAITING, pageRequest);
             case REJECTED:
-                return bookingRepository.findAllByItemOwnerIdAndStatusIs(ownerId, BookingStatus.REJECTED, pageRequest)
-                        .getContent();
+                return bookingRepository.findAllByItemOwnerIdAndStatusIs(ownerId, BookingStatus.REJECTED, pageRequest);
             case ALL:
-                return bookingRepository.findAllByItemOwnerIdOrderByIdDesc(ownerId, pageRequest).getContent();
+                return bookingRepository.findAllByItemOwnerIdOrderByIdDesc(ownerId, pageRequest);
             case CURRENT:
                 return bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(
-                        ownerId, LocalDateTime.now(), LocalDateTime.now(), pageRequest).getContent();
+                        ownerId, LocalDateTime.now(), LocalDateTime.now(), pageRequest);
             case PAST:
                 return bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByIdDesc(ownerId, LocalDateTime.now(),
-                        pageRequest).getContent();
+                        pageRequest);
             case FUTURE:
                 return bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByIdDesc(ownerId, LocalDateTime.now(),
-                        pageRequest).getContent();
+                        pageRequest);
+            default:
+                throw new BookingBadRequestException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private Slice<BookingResponseDto> findByBookerBefore(int userId, BookingStatus state, int lastId,
+                                                         PageRequest limit) {
+        LocalDateTime now = LocalDateTime.now();
+
+        switch (state) {
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.findAllByBookerIdAndStatusIsAndIdLessThanOrderByIdDesc(
+                        userId, state, lastId, limit);
+            case ALL:
+                return bookingRepository.findAllByBookerIdAndIdLessThanOrderByIdDesc(userId, lastId, limit);
+            case CURRENT:
+                return bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterAndIdLessThanOrderByIdDesc(
+                        userId, now, now, lastId, limit);
+            case PAST:
+                return bookingRepository.findAllByBookerIdAndEndBeforeAndIdLessThanOrderByIdDesc(
+                        userId, now, lastId, limit);
+            case FUTURE:
+                return bookingRepository.findAllByBookerIdAndStartAfterAndIdLessThanOrderByIdDesc(
+                        userId, now, lastId, limit);
+            default:
+                throw new BookingBadRequestException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private Slice<BookingResponseDto> findByOwnerBefore(int ownerId, BookingStatus bookingStatus, int lastId,
+                                                        PageRequest limit) {
+        LocalDateTime now = LocalDateTime.now();
+
+        switch (bookingStatus) {
+            case WAITING:
+            case REJECTED:
+                return bookingRepository.findAllByItemOwnerIdAndStatusIsAndIdLessThanOrderByIdDesc(
+                        ownerId, bookingStatus, lastId, limit);
+            case ALL:
+                return bookingRepository.findAllByItemOwnerIdAndIdLessThanOrderByIdDesc(ownerId, lastId, limit);
+            case CURRENT:
+                return bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterAndIdLessThanOrderByIdDesc(
+                        ownerId, now, now, lastId, limit);
+            case PAST:
+                return bookingRepository.findAllByItemOwnerIdAndEndBeforeAndIdLessThanOrderByIdDesc(
+                        ownerId, now, lastId, limit);
+            case FUTURE:
+                return bookingRepository.findAllByItemOwnerIdAndStartAfterAndIdLessThanOrderByIdDesc(
+                        ownerId, now, lastId, limit);
             default:
                 throw new BookingBadRequestException("Unknown state: UNSUPPORTED_STATUS");
         }
     }
+
+    /**
+     * Проверяет, что пользователь существует. Вызывается, только когда основной запрос ничего не вернул.
+     */
+    private void checkUserExists(int userId) {
+        if (!userCache.exists(userId)) {
+            log.error("Пользователь с id=" + userId + " не найден");
+            throw new UserNotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+    }
+
+    /**
+     * Ошибка пакетного изменения статуса, если часть броней изменил другой запрос. Называются брони,
+     * статус которых теперь отличается от устанавливаемого; если другой запрос принял то же решение,
+     * отличить их нельзя и называются все брони пакета.
+     */
+    private BookingStatusConflictException statusChangedConcurrently(List<Integer> bookingIds, BookingStatus status) {
+        List<Integer> conflicting = bookingRepository.findIdsWithStatusOtherThan(bookingIds, status);
+        if (conflicting.isEmpty()) {
+            conflicting = bookingIds;
+        }
+        log.error("Статус броней " + conflicting + " изменился во время обработки");
+        return new BookingStatusConflictException("Статус броней " + conflicting
+                + " изменён другим запросом, повторите попытку");
+    }
+
+    /**
+     * Определяет, почему условное обновление статуса брони не затронуло ни одной строки.
+     */
+    private RuntimeException refusedStatusChange(int userId, int bookingId) {
+        checkUserExists(userId);
+
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> {
+                    log.error("Бронь с id=" + bookingId + " не найдена");
+                    return new BookingNotFoundException("Бронь с id=" + bookingId + " не найдена");
+                });
+
+        if (booking.getItem().getOwner().getId() != userId) {
+            log.error("Пользователь с id=" + userId + "не может подтвердить бронь у не своего предмета");
+            return new BookingNotFoundException("Пользователь с id=" + userId
+                    + " не может подтвердить бронь у не своего предмета");
+        }
+        log.error("Бронь с id=" + bookingId + " уже подтверждена или отклонена");
+        return new BookingBadRequestException("Бронь уже подтверждена или отклонена");
+    }
+
+    /**
+     * Проверяет, что пользователь может забронировать предмет на указанный период.
+     */
+    private void checkBookable(int userId, Booking booking, Item item) {
+        int itemId = item.getId();
+        if (item.getOwner().getId() == userId) {
+            log.error("Нельзя забронировать предмет у самого себя");
+            throw new BookingNotFoundException("Нельзя забронировать предмет у самого себя");
+        }
+        if (!item.getAvailable()) {
+            log.error("Предмет недоступен для бронирования");
+            throw new ItemNotAvailableException("Предмет недоступен для бронирования");
+        }
+        if (booking.getStart().isAfter(booking.getEnd()) || booking.getStart().equals(booking.getEnd())) {
+            log.error("Дата окончания брони не может быть раньше даты начала брони");
+            throw new BookingBadRequestException("Дата окончания брони не может быть раньше даты начала брони");
+        }
+        if (!bookingIntervalIndex.isFree(itemId, booking.getStart(), booking.getEnd())) {
+            log.error("Предмет с id=" + itemId + " уже забронирован на это время");
+            throw new BookingOverlapException("Предмет с id=" + itemId + " уже забронирован на это время");
+        }
+    }
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.errorhandling;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
@@ -10,15 +13,19 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.booking.exception.BookingBadRequestException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.exception.BookingStatusConflictException;
 import ru.practicum.shareit.item.exception.ItemNotAvailableException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.WrongOwnerException;
+import ru.practicum.shareit.pagination.exception.WrongCursorException;
 import ru.practicum.shareit.request.exception.RequestNotFoundException;
 import ru.practicum.shareit.user.exception.UserAlreadyExistsException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 
 import javax.validation.ConstraintViolationException;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +34,11 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 @Slf4j
 public class ErrorHandler {
+    /**
+     * Код ошибки H2 для ссылки на несуществующую строку. PostgreSQL сообщает об этом текстом "is not present in table".
+     */
+    private static final String H2_PARENT_MISSING = "23506";
+
     /**
      * Обработчик исключения {@link UserNotFoundException}.
      * Возникает когда искомый пользователь не найден
@@ -132,6 +144,87 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * Обработчик исключения {@link BookingOverlapException}.
+     * Возникает когда бронь пересекается с уже подтверждённой бронью предмета
+     *
+     * @param e Исключение {@link BookingOverlapException}
+     * @return Объект {@link ErrorResponse} с информацией об ошибке
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingOverlapException(final BookingOverlapException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    /**
+     * Обработчик исключения {@link BookingStatusConflictException}.
+     * Возникает когда статус броней изменил другой запрос во время их обработки
+     *
+     * @param e Исключение {@link BookingStatusConflictException}
+     * @return Объект {@link ErrorResponse} с информацией об ошибке
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingStatusConflictException(final BookingStatusConflictException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    /**
+     * Обработчик исключения {@link ObjectOptimisticLockingFailureException}.
+     * Возникает когда запись изменена другим запросом после того, как была прочитана
+     *
+     * @param e Исключение {@link ObjectOptimisticLockingFailureException}
+     * @return Объект {@link ErrorResponse} с информацией об ошибке
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleObjectOptimisticLockingFailureException(final ObjectOptimisticLockingFailureException e) {
+        log.error(e.getMessage());
+        return new ErrorResponse("Запись была изменена другим запросом, повторите попытку");
+    }
+
+    /**
+     * Обработчик исключения {@link WrongCursorException}.
+     * Возникает когда курсор страницы не удаётся разобрать
+     *
+     * @param e Исключение {@link WrongCursorException}
+     * @return Объект {@link ErrorResponse} с информацией об ошибке
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleWrongCursorException(final WrongCursorException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    /**
+     * Обработчик исключения {@link DataIntegrityViolationException}.
+     * Возникает когда запись ссылается на несуществующего пользователя, предмет или запрос
+     * либо нарушает другое ограничение базы данных
+     *
+     * @param e Исключение {@link DataIntegrityViolationException}
+     * @return Объект {@link ErrorResponse} с информацией об ошибке
+     */
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(final DataIntegrityViolationException e) {
+        String constraint = missingReference(e);
+        log.error("Нарушено ограничение целостности данных: " + e.getMostSpecificCause().getMessage());
+        if (constraint.contains("users_user_id_fk")) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(handleUserNotFoundException(new UserNotFoundException("Пользователь не найден")));
+        }
+        if (constraint.contains("items_item_id_fk")) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(handleItemNotFoundException(new ItemNotFoundException("Предмет не найден")));
+        }
+        if (constraint.contains("requests_request_id_fk")) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(handleRequestNotFoundException(new RequestNotFoundException("Запрос не найден")));
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("Нарушено ограничение целостности данных"));
+    }
+
     /**
      * Обработчик исключения {@link ConstraintViolationException}.
      * Возникает, когда действие нарушает ограничение на структуру модели
@@ -181,6 +274,25 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * Возвращает имя нарушенного внешнего ключа в нижнем регистре, если запись ссылается на несуществующую строку,
+     * иначе пустую строку. Удаление строки, на которую ещё ссылаются, сюда не относится.
+     */
+    private static String missingReference(DataIntegrityViolationException e) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (!(e.getCause() instanceof org.hibernate.exception.ConstraintViolationException)) {
+            return "";
+        }
+        org.hibernate.exception.ConstraintViolationException cause =
+                (org.hibernate.exception.ConstraintViolationException) e.getCause();
+        boolean parentMissing = H2_PARENT_MISSING.equals(cause.getSQLState())
+                || message.contains("is not present in table");
+        if (!parentMissing) {
+            return "";
+        }
+        return cause.getConstraintName() != null ? cause.getConstraintName().toLowerCase(Locale.ROOT) : message;
+    }
+
     /**
      * Обработчик всевозможных исключений во время работы программы.
      *
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Контроллер потока событий пользователя.
+ */
+@RestController
+@RequestMapping(path = "/events")
+@RequiredArgsConstructor
+public class EventController {
+    /**
+     * Рассылка событий пользователям.
+     */
+    private final UserEventBroker userEventBroker;
+
+    /**
+     * Подписаться на события о бронях и ответах на запросы пользователя.
+     *
+     * @param userId Уникальный идентификатор пользователя
+     * @return Поток server-sent events
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") int userId) {
+        return userEventBroker.subscribe(userId);
+    }
+}
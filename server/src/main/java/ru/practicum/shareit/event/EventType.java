@@ -0,0 +1,21 @@
+package ru.practicum.shareit.event;
+
+/**
+ * Тип события, отправляемого пользователю.
+ */
+public enum EventType {
+    /**
+     * Создана бронь предмета пользователя.
+     */
+    BOOKING_CREATED,
+
+    /**
+     * Владелец подтвердил или отклонил бронь пользователя.
+     */
+    BOOKING_STATUS_CHANGED,
+
+    /**
+     * В ответ на запрос пользователя добавлен предмет.
+     */
+    REQUEST_ANSWERED
+}
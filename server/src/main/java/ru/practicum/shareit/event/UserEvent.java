@@ -0,0 +1,30 @@
+package ru.practicum.shareit.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+/**
+ * Событие, отправляемое пользователю в поток {@code GET /events}.
+ */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserEvent {
+    EventType type;
+    Integer bookingId;
+    Integer itemId;
+    Integer requestId;
+    BookingStatus status;
+
+    public static UserEvent bookingCreated(int bookingId, int itemId) {
+        return new UserEvent(EventType.BOOKING_CREATED, bookingId, itemId, null, BookingStatus.WAITING);
+    }
+
+    public static UserEvent bookingStatusChanged(int bookingId, int itemId, BookingStatus status) {
+        return new UserEvent(EventType.BOOKING_STATUS_CHANGED, bookingId, itemId, null, status);
+    }
+
+    public static UserEvent requestAnswered(int requestId, int itemId) {
+        return new UserEvent(EventType.REQUEST_ANSWERED, null, itemId, requestId, null);
+    }
+}
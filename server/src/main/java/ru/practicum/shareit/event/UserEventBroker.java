@@ -0,0 +1,319 @@
+package ru.practicum.shareit.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Рассылает события пользователям, подписанным на {@code GET /events}. У каждой подписки своя
+ * очередь ограниченного размера; события из неё отправляет пул потоков, по одной задаче
+ * на подписку. Если клиент не успевает читать и очередь переполнилась, подписка закрывается:
+ * клиент переподключается и дочитывает изменения обычными запросами, а память под очередь
+ * не растёт. События отправляются только после фиксации транзакции, которая их породила.
+ * <p>
+ * Отправка блокируется, пока клиент не примет данные, поэтому зависший клиент занимает поток.
+ * Пул растёт до {@link #MAX_SENDER_THREADS}, чтобы такие клиенты не останавливали рассылку остальным,
+ * а проверка раз в {@link #HEARTBEAT_INTERVAL} отключает подписки, отправка которым идёт дольше
+ * {@link #SEND_TIMEOUT}: новые события им больше не ставятся, а поток освобождается, когда контейнер
+ * сервлетов прервёт запись по своему таймауту. Простаивающим подпискам та же проверка отправляет
+ * комментарий-пульс, и оборванные соединения обнаруживаются, не дожидаясь {@link #TIMEOUT_MILLIS}.
+ */
+@Component
+@Slf4j
+public class UserEventBroker {
+    /**
+     * Наибольшее число неотправленных событий одной подписки.
+     */
+    static final int QUEUE_CAPACITY = 256;
+
+    /**
+     * Время жизни подписки, после которого клиент переподключается.
+     */
+    static final long TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    /**
+     * Как часто проверяются подписки и отправляется пульс.
+     */
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+
+    /**
+     * Сколько может длиться отправка одной подписке, прежде чем клиент считается зависшим.
+     */
+    static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Наибольшее число потоков отправки.
+     */
+    static final int MAX_SENDER_THREADS = 64;
+
+    private static final int SENDER_THREADS = 4;
+
+    private final UserCache userCache;
+    private final Executor executor;
+    private final long sendTimeoutNanos;
+
+    /**
+     * Поток периодической проверки подписок; {@code null}, если проверку вызывают вручную.
+     */
+    private final ScheduledExecutorService watchdog;
+
+    /**
+     * Идентификатор пользователя -> его открытые подписки.
+     */
+    private final Map<Integer, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserEventBroker(UserCache userCache) {
+        this.userCache = userCache;
+        this.executor = new ThreadPoolExecutor(SENDER_THREADS, MAX_SENDER_THREADS, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<>(), daemonThreadFactory("user-events-"));
+        this.sendTimeoutNanos = SEND_TIMEOUT.toNanos();
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("user-events-watchdog-"));
+        long interval = HEARTBEAT_INTERVAL.toMillis();
+        watchdog.scheduleWithFixedDelay(this::checkSubscriptions, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    UserEventBroker(UserCache userCache, Executor executor, Duration sendTimeout) {
+        this.userCache = userCache;
+        this.executor = executor;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.watchdog = null;
+    }
+
+    /**
+     * Открывает подписку пользователя на события.
+     *
+     * @param userId идентификатор пользователя
+     * @return поток событий
+     * @throws UserNotFoundException если пользователь не найден
+     */
+    public SseEmitter subscribe(int userId) {
+        if (!userCache.exists(userId)) {
+            log.error("Пользователь с id=" + userId + " не найден");
+            throw new UserNotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+        Subscription subscription = new Subscription(userId, new SseEmitter(TIMEOUT_MILLIS));
+        subscriptions.compute(userId, (id, userSubscriptions) -> {
+            Set<Subscription> result = userSubscriptions == null ? ConcurrentHashMap.newKeySet() : userSubscriptions;
+            result.add(subscription);
+            return result;
+        });
+        subscription.emitter.onCompletion(() -> remove(subscription));
+        subscription.emitter.onTimeout(() -> remove(subscription));
+        subscription.emitter.onError(e -> remove(subscription));
+        log.debug("Пользователь с id=" + userId + " подписался на события");
+        return subscription.emitter;
+    }
+
+    /**
+     * Есть ли хотя бы одна открытая подписка. Позволяет не готовить событие, которое некому отправить.
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Отправляет событие подпискам пользователя после фиксации текущей транзакции, а вне транзакции — сразу.
+     *
+     * @param userId идентификатор получателя
+     * @param event  событие
+     */
+    public void publish(int userId, UserEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deliver(userId, event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deliver(userId, event);
+            }
+        });
+    }
+
+    /**
+     * Отключает подписки, отправка которым зависла, отправляет пульс простаивающим и повторно
+     * планирует отправку, отложенную из-за занятости пула.
+     */
+    void checkSubscriptions() {
+        long now = System.nanoTime();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> {
+            if (subscription.isStalled(now)) {
+                subscription.evict("не принимает данные дольше " + SEND_TIMEOUT.toSeconds() + " с");
+            } else if (subscription.isIdle()) {
+                subscription.offer(() -> SseEmitter.event().comment("heartbeat"));
+            } else {
+                subscription.scheduleDrain();
+            }
+        }));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(Subscription::complete));
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    private void deliver(int userId, UserEvent event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions != null) {
+            userSubscriptions.forEach(subscription -> subscription.offer(() -> SseEmitter.event()
+                    .name(event.getType().name())
+                    .data(event, MediaType.APPLICATION_JSON)));
+        }
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger number = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscription {
+        private final int userId;
+        private final SseEmitter emitter;
+        /**
+         * Неотправленные сообщения. Сообщение собирается при отправке: сборщик события одноразовый.
+         */
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue =
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        /**
+         * Задача отправки уже запланирована или выполняется.
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        /**
+         * Подписка отключена; оставшиеся события не отправляются.
+         */
+        private volatile boolean closed;
+
+        /**
+         * Поток событий уже завершён.
+         */
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        /**
+         * Момент по {@link System#nanoTime()}, с которого ждёт отправки текущее событие.
+         */
+        private volatile long sendingSince;
+
+        private Subscription(int userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Supplier<SseEmitter.SseEventBuilder> message) {
+            if (!queue.offer(message)) {
+                evict("не успевает читать события");
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private boolean isStalled(long now) {
+            return draining.get() && now - sendingSince >= sendTimeoutNanos;
+        }
+
+        private boolean isIdle() {
+            return !draining.get() && queue.isEmpty();
+        }
+
+        /**
+         * Отключает подписку. Если отправка сейчас идёт, поток отправки сам завершит поток событий,
+         * когда запись закончится или прервётся: завершение ждало бы ту же блокировку, что и зависшая запись.
+         */
+        private void evict(String reason) {
+            log.warn("Подписчик пользователя с id=" + userId + " " + reason + ", подписка закрыта");
+            closed = true;
+            remove(this);
+            queue.clear();
+            if (!draining.get()) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sendingSince = System.nanoTime();
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    log.warn("Все потоки отправки событий заняты, отправка пользователю с id=" + userId + " отложена");
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> message;
+                while (!closed && (message = queue.poll()) != null) {
+                    sendingSince = System.nanoTime();
+                    emitter.send(message.get());
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Не удалось отправить событие пользователю с id=" + userId + ": " + e.getMessage());
+                closed = true;
+                remove(this);
+                queue.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (closed) {
+                complete();
+            } else if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -2,8 +2,12 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
@@ -11,13 +15,17 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @RestController
@@ -57,6 +65,22 @@ public class ItemController {
         return itemService.getItemById(itemId, userId);
     }
 
+    /**
+     * Календарь занятости предмета за период.
+     *
+     * @param itemId Идентификатор предмета
+     * @param from   Начало периода
+     * @param to     Конец периода
+     * @return Объединённые интервалы подтверждённых и ожидающих броней
+     */
+    @GetMapping("/{itemId}/calendar")
+    public ItemCalendar getCalendar(
+            @PathVariable @PositiveOrZero int itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getCalendar(itemId, from, to);
+    }
+
     /**
      * Обновление данных предмета.
      *
@@ -89,30 +113,59 @@ public class ItemController {
     /**
      * Получение списка всех предметов пользователя.
      *
+     * @param cursor Курсор страницы; если передан, параметр from не используется
      * @return Список предметов
      */
     @GetMapping
-    public Collection<ItemDto> getAll(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
-                                      @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                      @RequestParam(defaultValue = "5") @Positive Integer size) {
+    public ResponseEntity<List<ItemDto>> getAll(@RequestHeader(value = "X-Sharer-User-Id") Integer userId,
+                                                @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                @RequestParam(defaultValue = "5") @Positive Integer size,
+                                                @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            Slice<ItemDto> page = itemService.getAll(userId, PageCursor.parse(cursor), size);
+            log.debug("Количество предметов пользователя - " + userId + " - " + page.getNumberOfElements());
+            return PageCursor.toResponse(page, ItemDto::getId);
+        }
         Collection<ItemDto> items = itemService.getAll(userId, from, size);
         log.debug("Количество предметов пользователя - " + userId + " - " + items.size());
-        return items;
+        return ResponseEntity.ok(List.copyOf(items));
     }
 
     /**
      * Поиск предмета по названию или описанию.
      *
-     * @param text Текст поиска
+     * @param text   Текст поиска
+     * @param cursor Курсор страницы; если передан, параметр from не используется
      * @return список предметов
      */
     @GetMapping("/search")
-    public Collection<ItemDto> searchItems(@RequestParam @NotNull String text,
-                                           @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                           @RequestParam(defaultValue = "5") @Positive Integer size) {
-        return itemService.searchItems(text.toLowerCase(), from, size).stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam @NotNull String text,
+                                                     @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                     @RequestParam(defaultValue = "5") @Positive Integer size,
+                                                     @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            Slice<Item> page = itemService.searchItems(text.toLowerCase(Locale.ROOT), PageCursor.parse(cursor), size);
+            return PageCursor.toResponse(page.map(ItemMapper::toItemDto), ItemDto::getId);
+        }
+        return ResponseEntity.ok(toItemDtos(itemService.searchItems(text.toLowerCase(Locale.ROOT), from, size)));
+    }
+
+    /**
+     * Поиск доступных предметов, свободных в заданном интервале.
+     *
+     * @param text  Текст поиска
+     * @param start Начало интервала
+     * @param end   Конец интервала
+     * @return список предметов
+     */
+    @GetMapping("/available")
+    public Collection<ItemDto> searchAvailableItems(
+            @RequestParam @NotNull String text,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(defaultValue = "5") @Positive Integer size) {
+        return toItemDtos(itemService.searchAvailableItems(text.toLowerCase(Locale.ROOT), start, end, from, size));
     }
 
     /**
@@ -131,4 +184,10 @@ public class ItemController {
         Comment comment = CommentMapper.toComment(commentDto);
         return CommentMapper.toCommentDto(itemService.addComment(userId, itemId, comment));
     }
+
+    private static List<ItemDto> toItemDtos(Collection<Item> items) {
+        return items.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
 }
@@ -24,7 +24,8 @@ public class Comment {
      */
     @Id
     @Column(name = "comment_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", sequenceName = "comments_seq", allocationSize = 50)
     protected int id;
 
     /**
@@ -36,14 +37,14 @@ public class Comment {
     /**
      * Предмет, к которому привязан комментарий.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     protected Item item;
 
     /**
      * Автор комментария.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     protected User author;
 
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Integer> {
+    @EntityGraph(attributePaths = "author")
     Collection<Comment> findAllByItemIdOrderByIdDesc(int itemId);
+
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByItemIdInOrderByIdDesc(Collection<Integer> itemIds);
 }
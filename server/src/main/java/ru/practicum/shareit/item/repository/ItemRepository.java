@@ -1,23 +1,59 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemDocument;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Integer> {
-    Page<Item> getAllByOwnerIdOrderByOwnerId(int ownerId, Pageable pageable);
+    Slice<Item> getAllByOwnerIdOrderByOwnerId(int ownerId, Pageable pageable);
+
+    Slice<Item> findAllByOwnerIdAndIdGreaterThanOrderById(int ownerId, int lastId, Pageable pageable);
+
+    @Query("SELECT i FROM Item i " +
+            "WHERE (lower(i.name) LIKE lower(concat('%', ?1, '%')) " +
+            "OR lower(i.description) LIKE lower(concat('%', ?1, '%'))) " +
+            "AND i.available = true " +
+            "ORDER BY i.id")
+    Slice<Item> search(String text, Pageable pageable);
+
+    @Query("SELECT i FROM Item i " +
+            "WHERE (lower(i.name) LIKE lower(concat('%', ?1, '%')) " +
+            "OR lower(i.description) LIKE lower(concat('%', ?1, '%'))) " +
+            "AND i.available = true " +
+            "AND i.id > ?2 " +
+            "ORDER BY i.id")
+    Slice<Item> searchAfter(String text, int lastId, Pageable pageable);
 
     @Query("SELECT i FROM Item i " +
-            "WHERE lower(i.name) LIKE lower(concat('%', ?1, '%')) " +
-            "OR lower(i.description) LIKE lower(concat('%', ?1, '%')) " +
-            "AND i.available = true")
-    Page<Item> search(String text, Pageable pageable);
+            "WHERE (lower(i.name) LIKE lower(concat('%', ?1, '%')) " +
+            "OR lower(i.description) LIKE lower(concat('%', ?1, '%'))) " +
+            "AND i.available = true " +
+            "AND NOT EXISTS (SELECT b FROM Booking b WHERE b.item = i " +
+            "AND b.status = ?2 AND b.start < ?4 AND b.end > ?3) " +
+            "ORDER BY i.id")
+    Slice<Item> searchAvailable(String text, BookingStatus status, LocalDateTime start, LocalDateTime end,
+                                Pageable pageable);
 
     List<Item> findAllByRequestId(int requestId);
+
+    List<Item> findAllByRequestIdIn(Collection<Integer> requestIds);
+
+    /**
+     * Предметы, созданные в ответ на любой из запросов пользователя, одним запросом с соединением.
+     */
+    List<Item> findAllByRequestRequestorId(int requestorId);
+
+    @Query("SELECT new ru.practicum.shareit.item.search.ItemDocument(i.id, i.name, i.description, i.available, r.id, " +
+            "o.id) FROM Item i LEFT JOIN i.request r LEFT JOIN i.owner o")
+    List<ItemDocument> findAllDocuments();
 }
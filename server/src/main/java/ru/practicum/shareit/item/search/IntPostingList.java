@@ -0,0 +1,149 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Список вхождений термина: отсортированный массив идентификаторов предметов без повторов.
+ * Хранит примитивы, чтобы не создавать по объекту {@link Integer} на каждое вхождение.
+ */
+class IntPostingList {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * Добавляет идентификатор, сохраняя порядок. Идентификаторы новых предметов растут,
+     * поэтому обычно это добавление в конец.
+     *
+     * @param id идентификатор предмета
+     */
+    void add(int id) {
+        if (size > 0 && ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    /**
+     * Удаляет идентификатор, если он есть.
+     *
+     * @param id идентификатор предмета
+     */
+    void remove(int id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Передаёт идентификаторы по возрастанию, не копируя массив.
+     *
+     * @param action действие над идентификатором
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(ids[i]);
+        }
+    }
+
+    /**
+     * Проверяет наличие идентификатора двоичным поиском.
+     *
+     * @param id идентификатор предмета
+     * @return {@code true}, если идентификатор есть в списке
+     */
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Возвращает копию содержимого.
+     *
+     * @return отсортированный массив идентификаторов
+     */
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Пересечение двух отсортированных массивов.
+     *
+     * @param left  отсортированный массив
+     * @param right отсортированный массив
+     * @return отсортированный массив общих элементов
+     */
+    static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[k++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    /**
+     * Объединение двух отсортированных массивов без повторов.
+     *
+     * @param left  отсортированный массив
+     * @param right отсортированный массив
+     * @return отсортированный массив всех элементов
+     */
+    static int[] union(int[] left, int[] right) {
+        int[] result = new int[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < left.length || j < right.length) {
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                result[k++] = left[i++];
+            } else if (i == left.length || left[i] > right[j]) {
+                result[k++] = right[j++];
+            } else {
+                result[k++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+/**
+ * Снимок полей предмета, которые нужны для поиска и ответа на него.
+ */
+@Value
+public class ItemDocument {
+    /**
+     * Идентификатор предмета.
+     */
+    int id;
+
+    /**
+     * Название предмета.
+     */
+    String name;
+
+    /**
+     * Описание предмета.
+     */
+    String description;
+
+    /**
+     * Признак доступности предмета.
+     */
+    Boolean available;
+
+    /**
+     * Идентификатор запроса, в ответ на который создан предмет.
+     */
+    Integer requestId;
+
+    /**
+     * Идентификатор владельца предмета.
+     */
+    Integer ownerId;
+}
@@ -0,0 +1,428 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Поисковый индекс предметов в памяти процесса.
+ * Триграммный индекс по названию и описанию: каждой триграмме соответствует отсортированный
+ * список идентификаторов предметов, в тексте которых она встречается. Запрос сужает кандидатов
+ * пересечением списков своих триграмм, а затем проверяет вхождение подстроки, поэтому семантика
+ * совпадает с {@code LIKE '%text%'}. Индекс строится из базы при старте и поддерживается
+ * изменениями из сервиса предметов. Пока индекс не построен, поиск выполняется запросом к базе,
+ * который в PostgreSQL обслуживается GIN-индексами pg_trgm.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Триграмма -> предметы, в названии или описании которых она встречается.
+     * Кроме триграмм хранятся последние одна и две буквы каждого текста, чтобы короткие запросы
+     * находились по префиксу ключа.
+     */
+    private final NavigableMap<String, IntPostingList> postings = new TreeMap<>();
+
+    /**
+     * Идентификатор предмета -> проиндексированный снимок предмета.
+     */
+    private final Map<Integer, ItemDocument> documents = new HashMap<>();
+
+    /**
+     * Изменения, зафиксированные во время перестроения; {@code null}, если индекс не перестраивается.
+     * Снимок базы читается без блокировки и может не содержать их, поэтому после загрузки снимка
+     * изменения применяются повторно.
+     */
+    private List<Runnable> changesDuringRebuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Перестраивает индекс по содержимому базы при старте приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<ItemDocument> all;
+        try {
+            all = itemRepository.findAllDocuments();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            all.forEach(this::put);
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс предметов построен, предметов: " + all.size());
+    }
+
+    /**
+     * Добавляет или обновляет предмет в индексе после фиксации текущей транзакции.
+     *
+     * @param item сохранённый предмет
+     */
+    public void index(Item item) {
+        ItemDocument document = new ItemDocument(item.getId(), item.getName(), item.getDescription(),
+                item.getAvailable(), item.getRequest() == null ? null : item.getRequest().getId(),
+                item.getOwner() == null ? null : item.getOwner().getId());
+        afterCommit(() -> apply(() -> put(document)));
+    }
+
+    /**
+     * Удаляет предмет из индекса после фиксации текущей транзакции.
+     *
+     * @param itemId идентификатор удалённого предмета
+     */
+    public void remove(int itemId) {
+        afterCommit(() -> apply(() -> delete(itemId)));
+    }
+
+    /**
+     * Ищет доступные предметы, в названии или описании которых встречается текст поиска.
+     *
+     * @param text текст поиска
+     * @param from индекс первого элемента, начиная с 0
+     * @param size количество элементов для отображения
+     * @return найденные предметы в порядке возрастания идентификатора
+     */
+    public List<Item> search(String text, int from, int size) {
+        String query = text.toLowerCase(Locale.ROOT);
+        if (query.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (!ready) {
+            log.debug("Поисковый индекс ещё не построен, поиск в базе");
+            return itemRepository.search(query, PageRequest.of(from / size, size)).getContent();
+        }
+        return collect(query, (from / size) * size, 0, size, itemId -> true);
+    }
+
+    /**
+     * Ищет доступные предметы с текстом поиска, которые дополнительно проходят фильтр по идентификатору.
+     * Фильтр применяется к кандидатам в том же проходе, что и проверка текста. Если индекс ещё
+     * не построен, фильтруется страница, найденная в базе.
+     *
+     * @param text   текст поиска
+     * @param from   индекс первого элемента, начиная с 0
+     * @param size   количество элементов для отображения
+     * @param filter условие на идентификатор предмета
+     * @return найденные предметы в порядке возрастания идентификатора
+     */
+    public List<Item> search(String text, int from, int size, IntPredicate filter) {
+        String query = text.toLowerCase(Locale.ROOT);
+        if (query.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (!ready) {
+            log.debug("Поисковый индекс ещё не построен, поиск в базе");
+            return itemRepository.search(query, PageRequest.of(from / size, size)).stream()
+                    .filter(item -> filter.test(item.getId()))
+                    .collect(Collectors.toList());
+        }
+        return collect(query, (from / size) * size, 0, size, filter);
+    }
+
+    /**
+     * Построен ли индекс.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Число проиндексированных предметов.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Подбирает доступные предметы, в тексте которых встречается не меньше заданной доли триграмм слова.
+     * Триграммы перебираются от редких к частым: кандидаты берутся только из списков самых редких триграмм,
+     * которых достаточно, чтобы не пропустить подходящий предмет, а в остальных списках кандидаты лишь
+     * ищутся двоичным поиском. Если и эти редкие списки длиннее {@code maxDocumentFrequency}, слово
+     * встречается почти везде и пропускается, поэтому работа ограничена и каталог целиком не просматривается.
+     *
+     * @param grams                триграммы слова в нижнем регистре
+     * @param minSimilarity        наименьшая доля совпавших триграмм
+     * @param maxDocumentFrequency наибольшая длина списка, из которого берутся кандидаты
+     * @param excludedOwnerId      владелец, чьи предметы не подбираются
+     * @return идентификатор предмета -> доля совпавших триграмм слова
+     */
+    public Map<Integer, Double> matchWord(Set<String> grams, double minSimilarity, int maxDocumentFrequency,
+                                          int excludedOwnerId) {
+        int required = Math.max(1, (int) Math.ceil(minSimilarity * grams.size() - 1e-9));
+        lock.readLock().lock();
+        try {
+            List<IntPostingList> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                IntPostingList list = postings.get(gram);
+                if (list != null) {
+                    lists.add(list);
+                }
+            }
+            if (lists.size() < required) {
+                return Collections.emptyMap();
+            }
+            lists.sort(Comparator.comparingInt(IntPostingList::size));
+            int candidateLists = lists.size() - required + 1;
+            if (lists.get(candidateLists - 1).size() > maxDocumentFrequency) {
+                return Collections.emptyMap();
+            }
+            Map<Integer, Integer> hits = new HashMap<>();
+            for (int i = 0; i < candidateLists; i++) {
+                lists.get(i).forEach(itemId -> hits.merge(itemId, 1, Integer::sum));
+            }
+            Map<Integer, Double> similarities = new HashMap<>();
+            hits.forEach((itemId, candidateHits) -> {
+                ItemDocument document = documents.get(itemId);
+                if (!Boolean.TRUE.equals(document.getAvailable())
+                        || Objects.equals(document.getOwnerId(), excludedOwnerId)) {
+                    return;
+                }
+                int count = candidateHits;
+                for (int i = candidateLists; i < lists.size() && count + lists.size() - i >= required; i++) {
+                    if (lists.get(i).contains(itemId)) {
+                        count++;
+                    }
+                }
+                if (count >= required) {
+                    similarities.put(itemId, (double) count / grams.size());
+                }
+            });
+            return similarities;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет доступные предметы после курсора, по возрастанию идентификатора.
+     *
+     * @param text   текст поиска
+     * @param cursor курсор страницы
+     * @param size   количество элементов для отображения
+     * @return срез найденных предметов в порядке возрастания идентификатора
+     */
+    public Slice<Item> search(String text, PageCursor cursor, int size) {
+        String query = text.toLowerCase(Locale.ROOT);
+        PageRequest pageRequest = PageRequest.of(0, size);
+        if (query.isBlank()) {
+            return new SliceImpl<>(Collections.emptyList(), pageRequest, false);
+        }
+        if (!ready) {
+            log.debug("Поисковый индекс ещё не построен, поиск в базе");
+            return itemRepository.searchAfter(query, cursor.idAfter(), pageRequest);
+        }
+        List<Item> items = collect(query, 0, cursor.idAfter(), size + 1, itemId -> true);
+        boolean hasNext = items.size() > size;
+        return new SliceImpl<>(hasNext ? items.subList(0, size) : items, pageRequest, hasNext);
+    }
+
+    /**
+     * Собирает до limit подходящих предметов с идентификатором больше lastId, пропуская первые offset.
+     */
+    private List<Item> collect(String query, int offset, int lastId, int limit, IntPredicate filter) {
+        lock.readLock().lock();
+        try {
+            int[] candidates = findCandidates(query);
+            List<Item> result = new ArrayList<>(limit);
+            int skipped = 0;
+            int start = Arrays.binarySearch(candidates, lastId);
+            start = start >= 0 ? start + 1 : -start - 1;
+            for (int i = start; i < candidates.length && result.size() < limit; i++) {
+                ItemDocument document = documents.get(candidates[i]);
+                if (!Boolean.TRUE.equals(document.getAvailable()) || !contains(document, query)
+                        || !filter.test(document.getId())) {
+                    continue;
+                }
+                if (skipped++ < offset) {
+                    continue;
+                }
+                result.add(toItem(document));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Отбирает предметы, содержащие все триграммы запроса. Для запросов короче триграммы
+     * объединяются списки всех ключей, начинающихся с запроса.
+     */
+    private int[] findCandidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            int[] result = new int[0];
+            for (IntPostingList list : postings.subMap(query, true, query + Character.MAX_VALUE, false).values()) {
+                result = IntPostingList.union(result, list.toArray());
+            }
+            return result;
+        }
+        List<IntPostingList> lists = new ArrayList<>();
+        for (String gram : trigrams(query)) {
+            IntPostingList list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(IntPostingList::size));
+        int[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = IntPostingList.intersect(result, lists.get(i).toArray());
+        }
+        return result;
+    }
+
+    /**
+     * Применяет изменение под блокировкой записи и запоминает его, если индекс сейчас перестраивается.
+     */
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ItemDocument document) {
+        delete(document.getId());
+        documents.put(document.getId(), document);
+        for (String gram : grams(document)) {
+            postings.computeIfAbsent(gram, g -> new IntPostingList()).add(document.getId());
+        }
+    }
+
+    private void delete(int itemId) {
+        ItemDocument previous = documents.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            IntPostingList list = postings.get(gram);
+            if (list != null) {
+                list.remove(itemId);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(ItemDocument document) {
+        Set<String> grams = grams(document.getName());
+        grams.addAll(grams(document.getDescription()));
+        return grams;
+    }
+
+    /**
+     * Все триграммы текста, а также его последние одна и две буквы.
+     */
+    private static Set<String> grams(String text) {
+        if (text == null || text.isEmpty()) {
+            return new HashSet<>();
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        Set<String> grams = trigrams(lowerCase);
+        for (int tail = 1; tail < GRAM_LENGTH && tail <= lowerCase.length(); tail++) {
+            grams.add(lowerCase.substring(lowerCase.length() - tail));
+        }
+        return grams;
+    }
+
+    /**
+     * Все триграммы строки в нижнем регистре в том виде, в каком они хранятся в индексе.
+     * Регистр приводится как {@code toLowerCase(Locale.ROOT)}, независимо от локали сервера.
+     *
+     * @param lowerCase строка в нижнем регистре
+     * @return множество триграмм
+     */
+    public static Set<String> trigrams(String lowerCase) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerCase.length(); i++) {
+            trigrams.add(lowerCase.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+
+    private static boolean contains(ItemDocument document, String query) {
+        return (document.getName() != null && document.getName().toLowerCase(Locale.ROOT).contains(query))
+                || (document.getDescription() != null && document.getDescription().toLowerCase(Locale.ROOT).contains(query));
+    }
+
+    private static Item toItem(ItemDocument document) {
+        return Item.builder()
+                .id(document.getId())
+                .name(document.getName())
+                .description(document.getDescription())
+                .available(document.getAvailable())
+                .request(document.getRequestId() == null ? null
+                        : ItemRequest.builder().id(document.getRequestId()).build())
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
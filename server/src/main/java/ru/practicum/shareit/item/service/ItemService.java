@@ -1,9 +1,13 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 
 /**
@@ -43,6 +47,16 @@ public interface ItemService {
      */
     Item deleteItem(int itemId);
 
+    /**
+     * Возвращает календарь занятости предмета за период [from, to).
+     *
+     * @param itemId Идентификатор предмета
+     * @param from   Начало периода
+     * @param to     Конец периода
+     * @return Объединённые интервалы подтверждённых и ожидающих броней
+     */
+    ItemCalendar getCalendar(int itemId, LocalDateTime from, LocalDateTime to);
+
     /**
      * Получает список всех предметов.
      *
@@ -63,6 +77,39 @@ public interface ItemService {
      */
     Collection<Item> searchItems(String text, Integer from, Integer size);
 
+    /**
+     * Поиск доступных предметов, свободных от подтверждённых броней в интервале [start, end).
+     *
+     * @param text  текст поиска
+     * @param start начало интервала
+     * @param end   конец интервала
+     * @param from  индекс первого элемента, начиная с 0
+     * @param size  количество элементов для отображения
+     * @return список предметов
+     */
+    Collection<Item> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end,
+                                          Integer from, Integer size);
+
+    /**
+     * Получает страницу предметов пользователя после курсора, по возрастанию идентификатора.
+     *
+     * @param userId идентификатор пользователя
+     * @param cursor курсор страницы
+     * @param size   количество элементов для отображения
+     * @return срез предметов с признаком наличия следующей страницы
+     */
+    Slice<ItemDto> getAll(int userId, PageCursor cursor, Integer size);
+
+    /**
+     * Ищет предметы после курсора, по возрастанию идентификатора.
+     *
+     * @param text   текст поиска
+     * @param cursor курсор страницы
+     * @param size   количество элементов для отображения
+     * @return срез предметов с признаком наличия следующей страницы
+     */
+    Slice<Item> searchItems(String text, PageCursor cursor, Integer size);
+
     /**
      * Добавить комментарий к предмету.
      *
@@ -3,12 +3,21 @@ package ru.practicum.shareit.item.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.availability.BookingIntervalIndex;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
+import ru.practicum.shareit.booking.availability.ItemCalendarCache;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.exception.BookingBadRequestException;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.event.UserEvent;
+import ru.practicum.shareit.event.UserEventBroker;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.WrongOwnerException;
@@ -18,9 +27,11 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.request.exception.RequestNotFoundException;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -39,22 +50,29 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemCalendarCache itemCalendarCache;
+    private final UserCache userCache;
+    private final UserEventBroker userEvents;
 
     @Transactional
     @Override
     public ItemDto addItem(ItemDto itemDto, int ownerID) {
-        User owner = userStorage.findById(ownerID)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + ownerID + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + ownerID + " не найден");
-                });
+        User owner = userStorage.getReferenceById(ownerID);
         ItemRequest itemRequest = itemDto.getRequestId() == null ? null : itemRequestRepository
-                .findById(itemDto.getRequestId())
-                .orElseThrow(() -> new RequestNotFoundException("Запрос не найден"));
+                .getReferenceById(itemDto.getRequestId());
         Item item = ItemMapper.toItem(itemDto);
         item.setOwner(owner);
         item.setRequest(itemRequest);
-        return ItemMapper.toItemDto(itemStorage.save(item));
+        Item savedItem = itemStorage.save(item);
+        itemSearchIndex.index(savedItem);
+        if (itemRequest != null && userEvents.hasSubscribers()) {
+            itemRequestRepository.findRequestorId(itemDto.getRequestId())
+                    .ifPresent(requestorId -> userEvents.publish(requestorId,
+                            UserEvent.requestAnswered(itemDto.getRequestId(), savedItem.getId())));
+        }
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Transactional(readOnly = true)
@@ -68,15 +86,13 @@ public class ItemServiceImpl implements ItemService {
         ItemDto itemDto = ItemMapper.toItemDto(item);
 
         if (item.getOwner().getId() == userId) {
-            List<Booking> lastBooking = bookingRepository.findLastBooking(userId, itemId,
-                    LocalDateTime.now(), BookingStatus.APPROVED);
-            itemDto.setLastBooking(lastBooking.size() == 0 ? null
-                    : new ItemDto.BookingInfo(lastBooking.get(0).getId(), lastBooking.get(0).getBooker().getId()));
-
-            List<Booking> nextBooking = bookingRepository.findNextBooking(userId, itemId,
-                    LocalDateTime.now(), BookingStatus.APPROVED);
-            itemDto.setNextBooking(nextBooking.size() == 0 ? null
-                    : new ItemDto.BookingInfo(nextBooking.get(0).getId(), nextBooking.get(0).getBooker().getId()));
+            LocalDateTime now = LocalDateTime.now();
+            itemDto.setLastBooking(bookingRepository.findLastBooking(itemId, now, BookingStatus.APPROVED)
+                    .map(ItemServiceImpl::toBookingInfo)
+                    .orElse(null));
+            itemDto.setNextBooking(bookingRepository.findNextBooking(itemId, now, BookingStatus.APPROVED)
+                    .map(ItemServiceImpl::toBookingInfo)
+                    .orElse(null));
         }
         itemDto.setComments(commentRepository.findAllByItemIdOrderByIdDesc(itemId).stream()
                 .map(CommentMapper::toCommentDto)
@@ -95,13 +111,8 @@ public class ItemServiceImpl implements ItemService {
                     return new ItemNotFoundException("Предмет с id=" + itemId + " не найден");
                 });
 
-        User owner = userStorage.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
-
-        if (!checkItem.getOwner().equals(owner)) {
+        if (checkItem.getOwner().getId() != userId) {
+            checkUserExists(userId);
             throw new WrongOwnerException("Доступ запрещён");
         }
 
@@ -115,7 +126,9 @@ public class ItemServiceImpl implements ItemService {
             checkItem.setAvailable(item.getAvailable());
         }
 
-        return itemStorage.save(checkItem);
+        Item savedItem = itemStorage.save(checkItem);
+        itemSearchIndex.index(savedItem);
+        return savedItem;
     }
 
     @Transactional
@@ -128,59 +141,123 @@ public class ItemServiceImpl implements ItemService {
                 });
 
         itemStorage.delete(item);
+        itemSearchIndex.remove(itemId);
+        itemCalendarCache.evict(itemId);
         return item;
     }
 
+    @Override
+    public ItemCalendar getCalendar(int itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            log.error("Дата окончания интервала должна быть позже даты начала");
+            throw new BookingBadRequestException("Дата окончания интервала должна быть позже даты начала");
+        }
+        return itemCalendarCache.get(itemId).between(from, to);
+    }
+
     @Transactional(readOnly = true)
     @Override
     public Collection<ItemDto> getAll(int userId, Integer from, Integer size) {
-        userStorage.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
-
         PageRequest pageRequest = PageRequest.of(from / size, size);
 
         List<Item> items = itemStorage.getAllByOwnerIdOrderByOwnerId(userId, pageRequest).getContent();
+        if (items.isEmpty()) {
+            checkUserExists(userId);
+        }
+        return toOwnerItemDtos(userId, items);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<ItemDto> getAll(int userId, PageCursor cursor, Integer size) {
+        Slice<Item> items = itemStorage.findAllByOwnerIdAndIdGreaterThanOrderById(
+                userId, cursor.idAfter(), PageRequest.of(0, size));
+        if (!items.hasContent()) {
+            checkUserExists(userId);
+        }
+        return new SliceImpl<>(toOwnerItemDtos(userId, items.getContent()), items.getPageable(), items.hasNext());
+    }
+
+    /**
+     * Проверяет, что пользователь существует. Вызывается, только когда основной запрос не подтвердил этого.
+     */
+    private void checkUserExists(int userId) {
+        if (!userCache.exists(userId)) {
+            log.error("Пользователь с id=" + userId + " не найден");
+            throw new UserNotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+    }
+
+    /**
+     * Дополняет предметы владельца комментариями и бронями, загружая их пачкой для всей страницы.
+     */
+    private List<ItemDto> toOwnerItemDtos(int userId, List<Item> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
         List<Item> sortedItems = new ArrayList<>(items);
         sortedItems.sort(Comparator.comparing(Item::getId));
+        List<Integer> itemIds = sortedItems.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, List<CommentDto>> comments = commentRepository.findAllByItemIdInOrderByIdDesc(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        Map<Integer, ItemDto.BookingInfo> lastBookings = toBookingInfoByItem(
+                bookingRepository.findLastBookings(itemIds, now, BookingStatus.APPROVED));
+        Map<Integer, ItemDto.BookingInfo> nextBookings = toBookingInfoByItem(
+                bookingRepository.findNextBookings(itemIds, now, BookingStatus.APPROVED));
 
         return sortedItems.stream()
                 .map(item -> {
                     ItemDto itemDto = ItemMapper.toItemDto(item);
-                    itemDto.setComments(commentRepository.findAllByItemIdOrderByIdDesc(itemDto.getId())
-                            .stream()
-                            .map(CommentMapper::toCommentDto)
-                            .collect(Collectors.toList()));
-
+                    itemDto.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
                     if (item.getOwner().getId() == userId) {
-                        List<Booking> lastBooking = bookingRepository.findLastBooking(userId, itemDto.getId(),
-                                LocalDateTime.now(), BookingStatus.APPROVED);
-                        itemDto.setLastBooking(lastBooking.size() == 0 ? null
-                                : new ItemDto.BookingInfo(lastBooking.get(0).getId(),
-                                lastBooking.get(0).getBooker().getId()));
-
-                        List<Booking> nextBooking = bookingRepository.findNextBooking(userId, itemDto.getId(),
-                                LocalDateTime.now(), BookingStatus.APPROVED);
-                        itemDto.setNextBooking(nextBooking.size() == 0 ? null
-                                : new ItemDto.BookingInfo(nextBooking.get(0).getId(),
-                                nextBooking.get(0).getBooker().getId()));
+                        itemDto.setLastBooking(lastBookings.get(item.getId()));
+                        itemDto.setNextBooking(nextBookings.get(item.getId()));
                     }
                     return itemDto;
                 })
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
     @Override
     public Collection<Item> searchItems(String text, Integer from, Integer size) {
         if (text.isBlank()) {
             log.debug("Пустой запрос");
             return Collections.emptyList();
         }
-        PageRequest pageRequest = PageRequest.of(from / size, size);
-        return itemStorage.search(text, pageRequest).getContent();
+        return itemSearchIndex.search(text, from, size);
+    }
+
+    @Override
+    public Collection<Item> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end,
+                                                 Integer from, Integer size) {
+        if (!start.isBefore(end)) {
+            log.error("Дата окончания интервала должна быть позже даты начала");
+            throw new BookingBadRequestException("Дата окончания интервала должна быть позже даты начала");
+        }
+        if (text.isBlank()) {
+            log.debug("Пустой запрос");
+            return Collections.emptyList();
+        }
+        if (!itemSearchIndex.isReady() || !bookingIntervalIndex.isReady()) {
+            log.debug("Индексы ещё не построены, поиск свободных предметов в базе");
+            return itemStorage.searchAvailable(text, BookingStatus.APPROVED, start, end,
+                    PageRequest.of(from / size, size)).getContent();
+        }
+        return itemSearchIndex.search(text, from, size, itemId -> bookingIntervalIndex.isFree(itemId, start, end));
+    }
+
+    @Override
+    public Slice<Item> searchItems(String text, PageCursor cursor, Integer size) {
+        if (text.isBlank()) {
+            log.debug("Пустой запрос");
+            return new SliceImpl<>(Collections.emptyList());
+        }
+        return itemSearchIndex.search(text, cursor, size);
     }
 
     @Transactional
@@ -211,4 +288,27 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
         return commentRepository.save(comment);
     }
+
+    /**
+     * Группирует брони по предметам, оставляя по одной брони на каждый предмет.
+     *
+     * @param bookings брони нескольких предметов
+     * @return краткая информация о брони по идентификатору предмета
+     */
+    private static Map<Integer, ItemDto.BookingInfo> toBookingInfoByItem(Collection<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(),
+                        booking -> new ItemDto.BookingInfo(booking.getId(), booking.getBooker().getId()),
+                        (first, second) -> first.getId() < second.getId() ? first : second));
+    }
+
+    /**
+     * Преобразует краткую проекцию брони в информацию о брони предмета.
+     *
+     * @param booking краткая проекция брони
+     * @return информация о брони
+     */
+    private static ItemDto.BookingInfo toBookingInfo(BookingShortDto booking) {
+        return new ItemDto.BookingInfo(booking.getId(), booking.getBookerId());
+    }
 }
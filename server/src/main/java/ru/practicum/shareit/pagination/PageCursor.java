@@ -0,0 +1,106 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.pagination.exception.WrongCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Курсор постраничного вывода по ключу.
+ * Хранит идентификатор последнего элемента предыдущей страницы, поэтому следующая страница
+ * выбирается условием по идентификатору, а не смещением.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public class PageCursor {
+    /**
+     * Заголовок ответа с курсором следующей страницы.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Идентификатор последнего выданного элемента, {@code null} для первой страницы.
+     */
+    Integer lastId;
+
+    /**
+     * Курсор первой страницы.
+     */
+    public static PageCursor first() {
+        return new PageCursor(null);
+    }
+
+    /**
+     * Курсор страницы, следующей за элементом с указанным идентификатором.
+     */
+    public static PageCursor after(int lastId) {
+        return new PageCursor(lastId);
+    }
+
+    /**
+     * Разбирает курсор, переданный клиентом. Пустая строка означает первую страницу.
+     *
+     * @param cursor значение параметра запроса
+     * @return курсор
+     */
+    public static PageCursor parse(String cursor) {
+        if (cursor.isEmpty()) {
+            return first();
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return after(Integer.parseInt(decoded));
+        } catch (IllegalArgumentException e) {
+            log.error("Некорректный курсор " + cursor);
+            throw new WrongCursorException("Некорректный курсор " + cursor);
+        }
+    }
+
+    /**
+     * Кодирует курсор для передачи клиенту.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Граница для выборки по убыванию идентификатора.
+     */
+    public int idBefore() {
+        return lastId == null ? Integer.MAX_VALUE : lastId;
+    }
+
+    /**
+     * Граница для выборки по возрастанию идентификатора.
+     */
+    public int idAfter() {
+        return lastId == null ? 0 : lastId;
+    }
+
+    /**
+     * Формирует ответ со страницей и, если за ней есть ещё элементы, курсором следующей страницы.
+     *
+     * @param page       срез, прочитанный с запасом в один элемент
+     * @param idFunction функция получения идентификатора элемента
+     * @return ответ с заголовком {@value #NEXT_CURSOR_HEADER}
+     */
+    public static <T> ResponseEntity<List<T>> toResponse(Slice<T> page, ToIntFunction<T> idFunction) {
+        List<T> content = page.getContent();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext() && !content.isEmpty()) {
+            int lastId = idFunction.applyAsInt(content.get(content.size() - 1));
+            response.header(NEXT_CURSOR_HEADER, after(lastId).encode());
+        }
+        return response.body(content);
+    }
+}
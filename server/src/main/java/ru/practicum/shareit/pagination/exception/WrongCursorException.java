@@ -0,0 +1,10 @@
+package ru.practicum.shareit.pagination.exception;
+
+/**
+ * Исключение, выбрасываемое, когда курсор страницы не удаётся разобрать.
+ */
+public class WrongCursorException extends RuntimeException {
+    public WrongCursorException(String message) {
+        super(message);
+    }
+}
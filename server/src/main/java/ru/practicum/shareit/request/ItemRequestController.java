@@ -1,8 +1,11 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -12,6 +15,7 @@ import ru.practicum.shareit.validation.Create;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Контроллер для обработки HTTP-запросов, связанных с запросами на предметы.
@@ -43,14 +47,20 @@ public class ItemRequestController {
      * @param userId Уникальный идентификатор пользователя
      * @param from   Индекс первого элемента для пагинации
      * @param size   Количество элементов для отображения
+     * @param cursor Курсор страницы; если передан, параметр from не используется
      * @return Коллекция объектов ItemRequestDto, представляющих запросы других пользователей
      */
     @GetMapping("/all")
-    public Collection<ItemRequestDto> findAll(
+    public ResponseEntity<List<ItemRequestDto>> findAll(
             @RequestHeader("X-Sharer-User-Id") Integer userId,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "5") @Positive Integer size) {
-        return itemRequestService.findAll(userId, from, size);
+            @RequestParam(defaultValue = "5") @Positive Integer size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            Slice<ItemRequestDto> page = itemRequestService.findAll(userId, PageCursor.parse(cursor), size);
+            return PageCursor.toResponse(page, ItemRequestDto::getId);
+        }
+        return ResponseEntity.ok(List.copyOf(itemRequestService.findAll(userId, from, size)));
     }
 
     /**
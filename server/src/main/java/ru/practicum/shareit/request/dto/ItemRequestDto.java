@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,4 +24,10 @@ public class ItemRequestDto {
 
     private LocalDateTime created;
     private List<ItemDto> items;
+
+    /**
+     * Предметы, подобранные под запрос при его создании. Заполняется только при получении запроса по идентификатору.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ItemSuggestionDto> suggestions;
 }
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Предмет, подобранный под запрос.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSuggestionDto {
+    private int itemId;
+    private String name;
+    private String description;
+    private double score;
+}
@@ -0,0 +1,197 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Общая для всех пользователей лента последних запросов, от новых к старым. В памяти хранится окно
+ * из {@link #WINDOW} запросов с наибольшими идентификаторами; запросы самого пользователя отбрасываются
+ * при чтении. Если страница не помещается в окно, возвращается пустое значение и страницу читают из базы.
+ * Запрос, созданный в этом процессе, добавляется в окно после фиксации транзакции. Запросы, записанные
+ * другими экземплярами сервера, попадают в ленту при перечитывании окна раз в {@link #REFRESH_INTERVAL}.
+ */
+@Component
+@Slf4j
+public class RequestFeedCache {
+    /**
+     * Размер окна по умолчанию.
+     */
+    static final int WINDOW = 1_000;
+
+    /**
+     * Как часто окно перечитывается из базы.
+     */
+    static final Duration REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final int window;
+    private final long refreshNanos;
+
+    /**
+     * Записи окна от новых к старым; {@code null}, пока окно не загружено.
+     */
+    private volatile Window entries;
+
+    @Autowired
+    public RequestFeedCache(ItemRequestRepository itemRequestRepository) {
+        this(itemRequestRepository, WINDOW, REFRESH_INTERVAL);
+    }
+
+    RequestFeedCache(ItemRequestRepository itemRequestRepository, int window, Duration refreshInterval) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.window = window;
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Страница ленты по смещению, без запросов самого пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param offset число пропускаемых запросов
+     * @param size   размер страницы
+     * @return страница или пустое значение, если она выходит за окно
+     */
+    public Optional<Slice<RequestFeedEntry>> page(int userId, int offset, int size) {
+        return load().page(entry -> entry.getRequestorId() != userId, offset, size);
+    }
+
+    /**
+     * Страница ленты из запросов старше {@code lastId}, без запросов самого пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @param lastId идентификатор последнего запроса предыдущей страницы
+     * @param size   размер страницы
+     * @return страница или пустое значение, если она выходит за окно
+     */
+    public Optional<Slice<RequestFeedEntry>> pageBefore(int userId, int lastId, int size) {
+        return load().page(entry -> entry.getRequestorId() != userId && entry.getId() < lastId, 0, size);
+    }
+
+    /**
+     * Добавляет запрос в окно после фиксации текущей транзакции, а вне транзакции — сразу.
+     *
+     * @param itemRequest сохранённый запрос
+     */
+    public void add(ItemRequest itemRequest) {
+        RequestFeedEntry entry = new RequestFeedEntry(itemRequest.getId(), itemRequest.getDescription(),
+                itemRequest.getCreated(), itemRequest.getRequestor().getId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                insert(entry);
+            }
+        });
+    }
+
+    /**
+     * Возвращает окно, загружая его, если оно ещё не загружено или устарело. Вставка запроса ждёт
+     * перечитывания на том же мониторе, поэтому запрос, зафиксированный во время чтения из базы, не теряется.
+     */
+    private Window load() {
+        Window loaded = entries;
+        if (loaded != null && !loaded.isExpired(refreshNanos)) {
+            return loaded;
+        }
+        synchronized (this) {
+            if (entries == null || entries.isExpired(refreshNanos)) {
+                log.debug("Загрузка ленты запросов");
+                List<RequestFeedEntry> latest = itemRequestRepository.findFeed(PageRequest.of(0, window));
+                entries = new Window(latest, latest.size() < window, System.nanoTime());
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Вставляет запрос на место по убыванию идентификатора. Запрос могли уже прочитать при загрузке окна,
+     * а транзакции фиксируются не в порядке выдачи идентификаторов, поэтому дубликаты отбрасываются.
+     */
+    private synchronized void insert(RequestFeedEntry entry) {
+        Window current = entries;
+        if (current == null) {
+            return;
+        }
+        List<RequestFeedEntry> updated = new ArrayList<>(current.entries);
+        int position = 0;
+        while (position < updated.size() && updated.get(position).getId() > entry.getId()) {
+            position++;
+        }
+        if (position < updated.size() && updated.get(position).getId() == entry.getId()) {
+            return;
+        }
+        if (position == updated.size() && !current.complete) {
+            return;
+        }
+        updated.add(position, entry);
+        boolean complete = current.complete;
+        if (updated.size() > window) {
+            updated.remove(updated.size() - 1);
+            complete = false;
+        }
+        entries = new Window(updated, complete, current.loadedAt);
+    }
+
+    private static final class Window {
+        private final List<RequestFeedEntry> entries;
+
+        /**
+         * Окно содержит все запросы из базы.
+         */
+        private final boolean complete;
+
+        /**
+         * Момент чтения окна из базы по {@link System#nanoTime()}.
+         */
+        private final long loadedAt;
+
+        private Window(List<RequestFeedEntry> entries, boolean complete, long loadedAt) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.complete = complete;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isExpired(long refreshNanos) {
+            return System.nanoTime() - loadedAt >= refreshNanos;
+        }
+
+        private Optional<Slice<RequestFeedEntry>> page(Predicate<RequestFeedEntry> filter, int offset, int size) {
+            List<RequestFeedEntry> content = new ArrayList<>(size);
+            int skipped = 0;
+            for (RequestFeedEntry entry : entries) {
+                if (!filter.test(entry)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else if (content.size() < size) {
+                    content.add(entry);
+                } else {
+                    return Optional.of(new SliceImpl<>(content, PageRequest.of(offset / size, size), true));
+                }
+            }
+            if (!complete) {
+                return Optional.empty();
+            }
+            return Optional.of(new SliceImpl<>(content, PageRequest.of(offset / size, size), false));
+        }
+    }
+}
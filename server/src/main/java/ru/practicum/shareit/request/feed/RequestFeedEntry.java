@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.feed;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Неизменяемая запись общей ленты запросов.
+ */
+@Value
+public class RequestFeedEntry {
+    int id;
+    String description;
+    LocalDateTime created;
+    int requestorId;
+}
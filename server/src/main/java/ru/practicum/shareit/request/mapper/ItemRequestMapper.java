@@ -4,6 +4,7 @@
 package ru.practicum.shareit.request.mapper;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.feed.RequestFeedEntry;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.ArrayList;
@@ -25,6 +26,21 @@ public class ItemRequestMapper {
                 .build();
     }
 
+    /**
+     * Преобразует запись общей ленты в объект типа ItemRequestDto.
+     *
+     * @param entry Запись ленты для преобразования
+     * @return Объект типа ItemRequestDto
+     */
+    public static ItemRequestDto toItemRequestDto(RequestFeedEntry entry) {
+        return ItemRequestDto.builder()
+                .id(entry.getId())
+                .description(entry.getDescription())
+                .created(entry.getCreated())
+                .items(new ArrayList<>())
+                .build();
+    }
+
     /**
      * Преобразует объект типа ItemRequestDto в объект типа ItemRequest.
      *
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.Value;
+
+/**
+ * Предмет, подходящий под текст запроса, и его оценка.
+ */
+@Value
+public class ItemMatch {
+    int itemId;
+    double score;
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Подбирает доступные предметы под текст нового запроса по триграммному индексу предметов.
+ * Каждое слово запроса сравнивается с текстом предмета по доле общих триграмм, поэтому
+ * «стремянку» находит «Стремянка». Совпавшие слова складываются с весом, обратным числу
+ * подходящих предметов: редкое слово значит больше частого. Кандидаты берутся из списков
+ * самых редких триграмм слова, а слова, которые встречаются почти во всём каталоге, пропускаются.
+ * Предметы автора запроса не подбираются.
+ */
+@Component
+@Slf4j
+public class ItemMatcher {
+    /**
+     * Наибольшее число подобранных предметов.
+     */
+    static final int MAX_MATCHES = 5;
+
+    /**
+     * Доля триграмм слова, которая должна встретиться в тексте предмета.
+     */
+    static final double MIN_WORD_SIMILARITY = 0.6;
+
+    /**
+     * Наибольшая длина списка вхождений, из которого берутся кандидаты, по умолчанию.
+     */
+    static final int MAX_DOCUMENT_FREQUENCY = 1_000;
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private final ItemSearchIndex itemSearchIndex;
+    private final int maxDocumentFrequency;
+
+    @Autowired
+    public ItemMatcher(ItemSearchIndex itemSearchIndex) {
+        this(itemSearchIndex, MAX_DOCUMENT_FREQUENCY);
+    }
+
+    ItemMatcher(ItemSearchIndex itemSearchIndex, int maxDocumentFrequency) {
+        this.itemSearchIndex = itemSearchIndex;
+        this.maxDocumentFrequency = maxDocumentFrequency;
+    }
+
+    /**
+     * Подбирает предметы под текст запроса.
+     *
+     * @param text        текст запроса
+     * @param requestorId идентификатор автора запроса, его предметы не подбираются
+     * @return до {@link #MAX_MATCHES} предметов по убыванию оценки; пусто, если индекс ещё не построен
+     */
+    public List<ItemMatch> match(String text, int requestorId) {
+        if (text == null || !itemSearchIndex.isReady()) {
+            return Collections.emptyList();
+        }
+        int total = itemSearchIndex.size();
+        Map<Integer, Double> scores = new HashMap<>();
+        for (String word : words(text)) {
+            Map<Integer, Double> similarities = itemSearchIndex.matchWord(ItemSearchIndex.trigrams(word),
+                    MIN_WORD_SIMILARITY, maxDocumentFrequency, requestorId);
+            if (similarities.isEmpty()) {
+                continue;
+            }
+            double weight = Math.log(1 + (double) total / similarities.size());
+            similarities.forEach((itemId, similarity) -> scores.merge(itemId, weight * similarity, Double::sum));
+        }
+        List<ItemMatch> matches = scores.entrySet().stream()
+                .map(entry -> new ItemMatch(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(ItemMatch::getScore).reversed()
+                        .thenComparingInt(ItemMatch::getItemId))
+                .limit(MAX_MATCHES)
+                .collect(Collectors.toList());
+        log.debug("Для запроса подобрано предметов: " + matches.size());
+        return matches;
+    }
+
+    private static Set<String> words(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+"))
+                .filter(word -> word.length() >= MIN_WORD_LENGTH)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
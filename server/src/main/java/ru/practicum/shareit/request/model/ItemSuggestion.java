@@ -0,0 +1,49 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.*;
+
+/**
+ * Предмет, подобранный под запрос при его создании.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "suggestions")
+public class ItemSuggestion {
+    /**
+     * Уникальный идентификатор подсказки.
+     */
+    @Id
+    @Column(name = "suggestion_id")
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "suggestions_seq")
+    @SequenceGenerator(name = "suggestions_seq", sequenceName = "suggestions_seq", allocationSize = 50)
+    private int id;
+
+    /**
+     * Запрос, под который подобран предмет.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "request_id", nullable = false)
+    private ItemRequest request;
+
+    /**
+     * Подобранный предмет.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    /**
+     * Оценка совпадения текста запроса с предметом.
+     */
+    @Column(name = "score", nullable = false)
+    private double score;
+}
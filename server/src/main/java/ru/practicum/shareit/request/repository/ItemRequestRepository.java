@@ -1,19 +1,41 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.feed.RequestFeedEntry;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Integer> {
 
     Collection<ItemRequest> findAllByRequestorIdOrderByCreated(int requestorId);
 
-    @Query("SELECT ir FROM ItemRequest ir WHERE ir.requestor <> :currentUser")
-    Page<ItemRequest> findRequestsCreatedByOthersOrderByCreated(@Param("currentUser") User currentUser, Pageable pageable);
+    @Query("SELECT ir FROM ItemRequest ir WHERE ir.requestor <> :currentUser ORDER BY ir.id DESC")
+    Slice<ItemRequest> findRequestsCreatedByOthers(@Param("currentUser") User currentUser, Pageable pageable);
+
+    @Query("SELECT ir FROM ItemRequest ir WHERE ir.requestor <> :currentUser AND ir.id < :lastId"
+            + " ORDER BY ir.id DESC")
+    Slice<ItemRequest> findRequestsCreatedByOthersBefore(@Param("currentUser") User currentUser,
+                                                        @Param("lastId") int lastId, Pageable pageable);
+
+    /**
+     * Последние запросы всех пользователей, от новых к старым, для общей ленты.
+     */
+    @Query("SELECT new ru.practicum.shareit.request.feed.RequestFeedEntry(ir.id, ir.description, ir.created,"
+            + " ir.requestor.id) FROM ItemRequest ir ORDER BY ir.id DESC")
+    List<RequestFeedEntry> findFeed(Pageable pageable);
+
+    @Query("SELECT ir.requestor.id FROM ItemRequest ir WHERE ir.id = ?1")
+    Optional<Integer> findRequestorId(int requestId);
+
+    @Query("SELECT ir FROM ItemRequest ir WHERE ir.id = :requestId"
+            + " AND EXISTS (SELECT u FROM User u WHERE u.id = :userId)")
+    Optional<ItemRequest> findByIdIfUserExists(@Param("requestId") int requestId, @Param("userId") int userId);
 }
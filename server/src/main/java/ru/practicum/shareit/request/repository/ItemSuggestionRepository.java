@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemSuggestionDto;
+import ru.practicum.shareit.request.model.ItemSuggestion;
+
+import java.util.List;
+
+public interface ItemSuggestionRepository extends JpaRepository<ItemSuggestion, Integer> {
+
+    /**
+     * Подобранные под запрос предметы, которые всё ещё доступны, по убыванию оценки.
+     */
+    @Query("SELECT new ru.practicum.shareit.request.dto.ItemSuggestionDto(i.id, i.name, i.description, s.score) "
+            + "FROM ItemSuggestion s JOIN s.item i "
+            + "WHERE s.request.id = ?1 AND i.available = true "
+            + "ORDER BY s.score DESC, i.id")
+    List<ItemSuggestionDto> findSuggestions(int requestId);
+}
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
@@ -29,7 +31,17 @@ public interface ItemRequestService {
     Collection<ItemRequestDto> findAll(Integer userId, int from, int size);
 
     /**
-     * Найти запрос по его идентификатору.
+     * Найти запросы других пользователей после курсора, начиная с самых новых.
+     *
+     * @param userId Уникальный идентификатор пользователя
+     * @param cursor Курсор страницы
+     * @param size   Количество элементов для отображения на странице
+     * @return Срез объектов ItemRequestDto с признаком наличия следующей страницы
+     */
+    Slice<ItemRequestDto> findAll(Integer userId, PageCursor cursor, int size);
+
+    /**
+     * Найти запрос по его идентификатору вместе с подобранными под него предметами.
      *
      * @param userId    идентификатор пользователя
      * @param requestId идентификатор запроса
@@ -38,7 +50,7 @@ public interface ItemRequestService {
     ItemRequestDto findById(Integer userId, Integer requestId);
 
     /**
-     * Создать новый запрос на предмет.
+     * Создать новый запрос на предмет и подобрать под него доступные предметы.
      *
      * @param userId      идентификатор пользователя, создающего запрос
      * @param itemRequest Объект ItemRequest, содержащий данные нового запроса
@@ -3,21 +3,34 @@ package ru.practicum.shareit.request.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.exception.RequestNotFoundException;
+import ru.practicum.shareit.request.feed.RequestFeedCache;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.matching.ItemMatch;
+import ru.practicum.shareit.request.matching.ItemMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemSuggestion;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.ItemSuggestionRepository;
+import ru.practicum.shareit.user.cache.UserCache;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
-import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,53 +41,65 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
+    private final UserCache userCache;
+    private final RequestFeedCache requestFeed;
+    private final ItemMatcher itemMatcher;
+    private final ItemSuggestionRepository itemSuggestionRepository;
 
     @Transactional(readOnly = true)
     @Override
     public Collection<ItemRequestDto> findAllByUserId(Integer userId) {
-        User requester = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
         Collection<ItemRequestDto> itemRequests = itemRequestRepository
-                .findAllByRequestorIdOrderByCreated(requester.getId()).stream()
+                .findAllByRequestorIdOrderByCreated(userId).stream()
                 .map(ItemRequestMapper::toItemRequestDto).collect(Collectors.toList());
-        itemRequests.forEach(ir -> ir.setItems(itemRepository.findAllByRequestId(ir.getId()).stream()
-                .map(ItemMapper::toItemDto).collect(Collectors.toList())));
+        if (itemRequests.isEmpty()) {
+            checkUserExists(userId);
+            return itemRequests;
+        }
+        setItems(itemRequests, itemRepository.findAllByRequestRequestorId(userId));
         return itemRequests;
     }
 
     @Transactional(readOnly = true)
     @Override
     public Collection<ItemRequestDto> findAll(Integer userId, int from, int size) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
-
+        checkUserExists(userId);
         PageRequest pageRequest = PageRequest.of(from / size, size);
 
-        Collection<ItemRequestDto> itemRequests = itemRequestRepository
-                .findRequestsCreatedByOthersOrderByCreated(user, pageRequest)
-                .getContent().stream()
-                .map(ItemRequestMapper::toItemRequestDto).collect(Collectors.toList());
-        itemRequests.forEach(ir -> ir.setItems(itemRepository.findAllByRequestId(ir.getId()).stream()
-                .map(ItemMapper::toItemDto).collect(Collectors.toList())));
+        List<ItemRequestDto> itemRequests = requestFeed.page(userId, (int) pageRequest.getOffset(), size)
+                .map(page -> page.map(ItemRequestMapper::toItemRequestDto))
+                .orElseGet(() -> itemRequestRepository
+                        .findRequestsCreatedByOthers(userRepository.getReferenceById(userId), pageRequest)
+                        .map(ItemRequestMapper::toItemRequestDto))
+                .getContent();
+        if (!itemRequests.isEmpty()) {
+            setItems(itemRequests, findItemsByRequests(itemRequests));
+        }
+        return itemRequests;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<ItemRequestDto> findAll(Integer userId, PageCursor cursor, int size) {
+        checkUserExists(userId);
+        Slice<ItemRequestDto> itemRequests = requestFeed.pageBefore(userId, cursor.idBefore(), size)
+                .map(page -> page.map(ItemRequestMapper::toItemRequestDto))
+                .orElseGet(() -> itemRequestRepository
+                        .findRequestsCreatedByOthersBefore(userRepository.getReferenceById(userId), cursor.idBefore(),
+                                PageRequest.of(0, size))
+                        .map(ItemRequestMapper::toItemRequestDto));
+        if (itemRequests.hasContent()) {
+            setItems(itemRequests.getContent(), findItemsByRequests(itemRequests.getContent()));
+        }
         return itemRequests;
     }
 
     @Transactional(readOnly = true)
     @Override
     public ItemRequestDto findById(Integer userId, Integer requestId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
-        ItemRequest request = itemRequestRepository.findById(requestId)
+        ItemRequest request = itemRequestRepository.findByIdIfUserExists(requestId, userId)
                 .orElseThrow(() -> {
+                    checkUserExists(userId);
                     log.error("Запрос с id=" + requestId + " не найден");
                     return new RequestNotFoundException("Запрос с id=" + requestId + " не найден");
                 });
@@ -83,6 +108,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         itemRequestDto.setItems(itemRepository.findAllByRequestId(requestId).stream()
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList()));
+        itemRequestDto.setSuggestions(itemSuggestionRepository.findSuggestions(requestId));
 
         return itemRequestDto;
     }
@@ -90,13 +116,60 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Transactional
     @Override
     public ItemRequest addItem(Integer userId, ItemRequest itemRequest) {
-        User requester = userRepository.findById(userId)
-                .orElseThrow(() -> {
-                    log.error("Пользователь с id=" + userId + " не найден");
-                    return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
-                });
-        itemRequest.setRequestor(requester);
+        itemRequest.setRequestor(userRepository.getReferenceById(userId));
         itemRequest.setCreated(LocalDateTime.now());
-        return itemRequestRepository.save(itemRequest);
+        ItemRequest saved = itemRequestRepository.save(itemRequest);
+        requestFeed.add(saved);
+        saveSuggestions(saved, itemMatcher.match(saved.getDescription(), userId));
+        return saved;
+    }
+
+    /**
+     * Сохраняет подсказки к запросу. Индекс, по которому они подобраны, может ещё помнить только что
+     * удалённый предмет, поэтому подсказки к предметам, которых уже нет в базе, отбрасываются:
+     * иначе вставка нарушила бы внешний ключ и отклонила сам запрос.
+     */
+    private void saveSuggestions(ItemRequest request, List<ItemMatch> matches) {
+        if (matches.isEmpty()) {
+            return;
+        }
+        Map<Integer, Item> items = itemRepository.findAllById(matches.stream()
+                        .map(ItemMatch::getItemId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        itemSuggestionRepository.saveAll(matches.stream()
+                .filter(match -> items.containsKey(match.getItemId()))
+                .map(match -> ItemSuggestion.builder()
+                        .request(request)
+                        .item(items.get(match.getItemId()))
+                        .score(match.getScore())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private List<Item> findItemsByRequests(Collection<ItemRequestDto> itemRequests) {
+        return itemRepository.findAllByRequestIdIn(itemRequests.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Раскладывает предметы, загруженные одним запросом, по запросам, в ответ на которые они созданы.
+     */
+    private static void setItems(Collection<ItemRequestDto> itemRequests, List<Item> items) {
+        Map<Integer, List<ItemDto>> itemsByRequest = items.stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+        itemRequests.forEach(ir -> ir.setItems(itemsByRequest.getOrDefault(ir.getId(), new ArrayList<>())));
+    }
+
+    /**
+     * Проверяет, что пользователь существует. Вызывается, только когда основной запрос ничего не вернул.
+     */
+    private void checkUserExists(int userId) {
+        if (!userCache.exists(userId)) {
+            log.error("Пользователь с id=" + userId + " не найден");
+            throw new UserNotFoundException("Пользователь с id=" + userId + " не найден");
+        }
     }
 }
@@ -1,9 +1,18 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -11,8 +20,11 @@ import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.validation.Create;
 import ru.practicum.shareit.validation.Update;
 
+import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
-import java.util.Collection;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +41,8 @@ public class UserController {
      */
     private final UserService userService;
 
+    private final ObjectMapper objectMapper;
+
     /**
      * Добавление нового пользователя.
      *
@@ -85,14 +99,46 @@ public class UserController {
     /**
      * Получение списка всех пользователей.
      *
+     * @param cursor Курсор страницы; если не передан, возвращаются все пользователи
      * @return Список пользователей
      */
     @GetMapping
-    public Collection<UserDto> getAll() {
-        Collection<UserDto> users = userService.getAll().stream()
+    public ResponseEntity<List<UserDto>> getAll(@RequestParam(defaultValue = "20") @Positive Integer size,
+                                                @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            Slice<UserDto> page = userService.getAll(PageCursor.parse(cursor), size).map(UserMapper::toUserDto);
+            log.debug("Количество пользователей на странице - " + page.getNumberOfElements());
+            return PageCursor.toResponse(page, UserDto::getId);
+        }
+        List<UserDto> users = userService.getAll().stream()
                 .map(UserMapper::toUserDto)
                 .collect(Collectors.toList());
         log.debug("Количество пользователей - " + users.size());
-        return users;
+        return ResponseEntity.ok(users);
+    }
+
+    /**
+     * Выгрузка всех пользователей в формате NDJSON: по одному объекту на строку.
+     * Пользователи читаются из базы курсором и пишутся в ответ по мере чтения,
+     * поэтому память не зависит от их числа.
+     *
+     * @return Поток пользователей
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> userService.forEach(user -> {
+            try {
+                writer.writeValue(out, UserMapper.toUserDto(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
@@ -0,0 +1,174 @@
+package ru.practicum.shareit.user.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш пользователей по идентификатору. Для неизвестного идентификатора запоминается отсутствие пользователя,
+ * поэтому повторные запросы от него тоже не доходят до базы. Размер кэша ограничен: при переполнении
+ * вытесняется произвольная запись.
+ * <p>
+ * Пользователь загружается вне блокировок карты. Каждый сброс увеличивает номер поколения; если за время
+ * загрузки поколение сменилось, загруженная запись могла устареть и в кэше не остаётся.
+ */
+@Component
+@Slf4j
+public class UserCache {
+    /**
+     * Наибольшее число записей по умолчанию.
+     */
+    static final int MAX_SIZE = 10_000;
+
+    private final UserRepository userRepository;
+    private final int maxSize;
+
+    /**
+     * Идентификатор пользователя -> снимок пользователя или пустое значение, если пользователя нет.
+     */
+    private final Map<Integer, Optional<UserSnapshot>> users = new ConcurrentHashMap<>();
+
+    /**
+     * Номер поколения, увеличивается при каждом сбросе.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public UserCache(UserRepository userRepository) {
+        this(userRepository, MAX_SIZE);
+    }
+
+    UserCache(UserRepository userRepository, int maxSize) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Возвращает снимок пользователя, при необходимости загружая его из базы.
+     *
+     * @param userId идентификатор пользователя
+     * @return снимок пользователя или пустое значение, если пользователь не найден
+     */
+    public Optional<UserSnapshot> find(int userId) {
+        Optional<UserSnapshot> user = users.get(userId);
+        if (user != null) {
+            hits.increment();
+            return user;
+        }
+        long loadedAt = generation.get();
+        Optional<UserSnapshot> loaded = load(userId);
+        user = users.putIfAbsent(userId, loaded);
+        if (user != null) {
+            return user;
+        }
+        if (generation.get() != loadedAt) {
+            users.remove(userId, loaded);
+            return loaded;
+        }
+        puts.increment();
+        trim(userId);
+        return loaded;
+    }
+
+    /**
+     * Проверяет, существует ли пользователь.
+     *
+     * @param userId идентификатор пользователя
+     * @return {@code true}, если пользователь существует
+     */
+    public boolean exists(int userId) {
+        return find(userId).isPresent();
+    }
+
+    /**
+     * Сбрасывает запись о пользователе после завершения текущей транзакции,
+     * а вне транзакции — сразу.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void evict(int userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                remove(userId);
+            }
+        });
+    }
+
+    /**
+     * Возвращает число записей в кэше.
+     */
+    public long size() {
+        return users.size();
+    }
+
+    /**
+     * Возвращает число обращений, обслуженных кэшем.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Возвращает число обращений, потребовавших загрузки из базы.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Возвращает число записей, помещённых в кэш.
+     */
+    public long putCount() {
+        return puts.sum();
+    }
+
+    /**
+     * Возвращает число записей, удалённых из кэша при изменении пользователя или переполнении.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Optional<UserSnapshot> load(int userId) {
+        misses.increment();
+        log.debug("Загрузка пользователя с id=" + userId);
+        return userRepository.findSnapshotById(userId);
+    }
+
+    private void remove(int userId) {
+        generation.incrementAndGet();
+        if (users.remove(userId) != null) {
+            evictions.increment();
+        }
+    }
+
+    private void trim(int keptUserId) {
+        Iterator<Integer> keys = users.keySet().iterator();
+        while (users.size() > maxSize && keys.hasNext()) {
+            int userId = keys.next();
+            if (userId != keptUserId && users.remove(userId) != null) {
+                evictions.increment();
+            }
+        }
+    }
+}
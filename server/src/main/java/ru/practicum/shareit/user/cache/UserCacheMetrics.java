@@ -0,0 +1,52 @@
+package ru.practicum.shareit.user.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Публикует метрики {@link UserCache} под стандартными именами {@code cache.gets}, {@code cache.puts},
+ * {@code cache.evictions} и {@code cache.size} с тегом {@code cache=users}.
+ */
+@Component
+public class UserCacheMetrics extends CacheMeterBinder<UserCache> {
+
+    public UserCacheMetrics(UserCache userCache) {
+        super(userCache, "users", Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        UserCache cache = getCache();
+        return cache == null ? null : cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        UserCache cache = getCache();
+        return cache == null ? 0 : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        UserCache cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        UserCache cache = getCache();
+        return cache == null ? null : cache.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        UserCache cache = getCache();
+        return cache == null ? 0 : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.user.cache;
+
+import lombok.Value;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Краткие сведения о пользователе, которые хранятся в {@link UserCache}.
+ */
+@Value
+public class UserSnapshot {
+    /**
+     * Идентификатор пользователя.
+     */
+    int id;
+
+    /**
+     * Имя пользователя.
+     */
+    String name;
+
+    /**
+     * Электронная почта пользователя.
+     */
+    String email;
+
+    /**
+     * Создаёт пользователя из снимка. Результат не связан с контекстом JPA и годится только для чтения.
+     *
+     * @return пользователь с идентификатором, именем и почтой
+     */
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .build();
+    }
+}
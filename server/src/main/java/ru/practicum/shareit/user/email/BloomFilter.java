@@ -0,0 +1,76 @@
+package ru.practicum.shareit.user.email;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для строк. Отвечает «точно нет» или «возможно есть»: ложноположительные ответы
+ * случаются с заданной вероятностью, ложноотрицательных не бывает. Позиции битов получаются
+ * двойным хешированием одного 64-битного хеша. Потокобезопасен.
+ */
+class BloomFilter {
+    private final AtomicLongArray words;
+    private final int bitCount;
+    private final int hashCount;
+
+    /**
+     * Создаёт фильтр под ожидаемое число строк и допустимую долю ложноположительных ответов.
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bitCount = (int) Math.min(Math.max(bits, Long.SIZE), Integer.MAX_VALUE - Long.SIZE);
+        words = new AtomicLongArray((bitCount + Long.SIZE - 1) / Long.SIZE);
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+    }
+
+    /**
+     * Добавляет строку.
+     */
+    void put(String value) {
+        long hash = hash(value);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = bit(hash, i);
+            long mask = 1L << bit;
+            words.accumulateAndGet(bit >>> 6, mask, (word, m) -> word | m);
+        }
+    }
+
+    /**
+     * Проверяет, могла ли строка быть добавлена.
+     *
+     * @return {@code false}, если строка точно не добавлялась
+     */
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = bit(hash, i);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int bit(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * FNV-1a по байтам UTF-8 с перемешиванием из MurmurHash3, чтобы старшие и младшие половины хеша были независимы.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
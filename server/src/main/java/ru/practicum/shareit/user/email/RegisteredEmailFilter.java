@@ -0,0 +1,70 @@
+package ru.practicum.shareit.user.email;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+
+/**
+ * Фильтр Блума по почтам зарегистрированных пользователей. Позволяет не искать почту в базе,
+ * когда она заведомо свободна. Уникальность гарантирует ограничение базы, поэтому пропущенная
+ * фильтром почта (например, добавленная во время перестроения) приводит лишь к нарушению ограничения,
+ * а не к дублю. Почты удалённых пользователей из фильтра не убираются и дают только лишний запрос.
+ * Пока фильтр не построен, считается, что любая почта может быть занята.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RegisteredEmailFilter {
+    /**
+     * На сколько почт рассчитан фильтр. При большем числе растёт доля ложноположительных ответов.
+     */
+    private static final int EXPECTED_EMAILS = 100_000;
+
+    /**
+     * Доля ложноположительных ответов при ожидаемом числе почт.
+     */
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final UserRepository userRepository;
+
+    private volatile BloomFilter filter = new BloomFilter(EXPECTED_EMAILS, FALSE_POSITIVE_RATE);
+
+    private volatile boolean ready;
+
+    /**
+     * Перестраивает фильтр по содержимому базы при старте приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<String> emails = userRepository.findAllEmails();
+        BloomFilter rebuilt = new BloomFilter(Math.max(EXPECTED_EMAILS, emails.size()), FALSE_POSITIVE_RATE);
+        emails.forEach(rebuilt::put);
+        filter = rebuilt;
+        ready = true;
+        log.info("Фильтр почт пользователей построен, почт: " + emails.size());
+    }
+
+    /**
+     * Проверяет, может ли почта быть занята.
+     *
+     * @param email электронная почта
+     * @return {@code false}, если почта точно свободна
+     */
+    public boolean mightBeTaken(String email) {
+        return !ready || filter.mightContain(email);
+    }
+
+    /**
+     * Отмечает почту как занятую.
+     *
+     * @param email электронная почта
+     */
+    public void add(String email) {
+        filter.put(email);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.mapper;
 
+import ru.practicum.shareit.user.cache.UserSnapshot;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -36,4 +37,18 @@ public class UserMapper {
                 .email(user.getEmail())
                 .build();
     }
+
+    /**
+     * Преобразует снимок пользователя в объект типа UserDto.
+     *
+     * @param user Снимок пользователя для преобразования
+     * @return Объект типа UserDto
+     */
+    public static UserDto toUserDto(UserSnapshot user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
 }
@@ -22,7 +22,8 @@ public class User {
      */
     @Id
     @Column(name = "user_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     protected int id;
 
     /**
@@ -36,4 +37,11 @@ public class User {
      */
     @Column(name = "email", nullable = false)
     protected String email;
+
+    /**
+     * Версия записи для оптимистической блокировки.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    protected int version;
 }
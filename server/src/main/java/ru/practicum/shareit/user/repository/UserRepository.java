@@ -1,10 +1,38 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.cache.UserSnapshot;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     User findByEmail(String email);
+
+    @Query("select new ru.practicum.shareit.user.cache.UserSnapshot(u.id, u.name, u.email) "
+            + "from User u where u.id = ?1")
+    Optional<UserSnapshot> findSnapshotById(int userId);
+
+    @Query("select u.email from User u")
+    List<String> findAllEmails();
+
+    Slice<User> findAllByIdGreaterThanOrderById(int lastId, Pageable pageable);
+
+    /**
+     * Читает всех пользователей курсором JDBC порциями по {@code fetchSize} строк.
+     * Поток нужно закрыть и прочитать внутри транзакции.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.user.cache.UserSnapshot(u.id, u.name, u.email) "
+            + "from User u order by u.id")
+    Stream<UserSnapshot> streamAll();
 }
@@ -1,8 +1,12 @@
 package ru.practicum.shareit.user.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserSnapshot;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс для управления пользователями.
@@ -46,4 +50,21 @@ public interface UserService {
      * @return Список пользователей
      */
     Collection<User> getAll();
+
+    /**
+     * Получает страницу пользователей после курсора, по возрастанию идентификатора.
+     *
+     * @param cursor курсор страницы
+     * @param size   количество элементов для отображения
+     * @return срез пользователей с признаком наличия следующей страницы
+     */
+    Slice<User> getAll(PageCursor cursor, Integer size);
+
+    /**
+     * Передаёт всех пользователей по одному, по возрастанию идентификатора,
+     * не загружая их в память целиком.
+     *
+     * @param action действие над каждым пользователем
+     */
+    void forEach(Consumer<UserSnapshot> action);
 }
@@ -2,40 +2,52 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.cache.UserSnapshot;
+import ru.practicum.shareit.user.email.RegisteredEmailFilter;
 import ru.practicum.shareit.user.exception.UserAlreadyExistsException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.Collection;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
+    /**
+     * Имя ограничения уникальности почты в схеме.
+     */
+    private static final String EMAIL_CONSTRAINT = "users_email_uq";
 
     private final UserRepository userStorage;
+    private final UserCache userCache;
+    private final RegisteredEmailFilter registeredEmailFilter;
 
     @Transactional
     @Override
     public User addUser(User user) {
-        if (userStorage.findByEmail(user.getEmail()) != null) {
-            log.error("Пользователь с почтой=" + user.getEmail() + " уже существует");
-            try {
-                userStorage.save(user);
-            } catch (RuntimeException ex) {
-                throw new UserAlreadyExistsException("Пользователь с почтой=" + user.getEmail() + " уже существует");
-            }
-        }
-        return userStorage.save(user);
+        checkEmailFree(user.getEmail());
+        User saved = saveAndFlush(user);
+        userCache.evict(saved.getId());
+        return saved;
     }
 
     @Transactional(readOnly = true)
     @Override
     public User getUser(int userId) {
-        return userStorage.findById(userId)
+        return userCache.find(userId)
+                .map(UserSnapshot::toUser)
                 .orElseThrow(() -> {
                     log.error("Пользователь с id=" + userId + " не найден");
                     return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
@@ -53,16 +65,14 @@ public class UserServiceImpl implements UserService {
                 });
 
         if (user.getEmail() != null && !user.getEmail().equals(checkUser.getEmail())) {
-            if (userStorage.findByEmail(user.getEmail()) != null) {
-                log.error("Пользователь с почтой=" + user.getEmail() + " уже существует");
-                throw new UserAlreadyExistsException("Пользователь с почтой=" + user.getEmail() + " уже существует");
-            }
+            checkEmailFree(user.getEmail());
             checkUser.setEmail(user.getEmail());
         }
         if (user.getName() != null && !user.getName().isBlank()) {
             checkUser.setName(user.getName());
         }
-        return userStorage.save(checkUser);
+        userCache.evict(userId);
+        return saveAndFlush(checkUser);
     }
 
     @Transactional
@@ -74,6 +84,7 @@ public class UserServiceImpl implements UserService {
                     return new UserNotFoundException("Пользователь с id=" + userId + " не найден");
                 });
         userStorage.delete(checkUser);
+        userCache.evict(userId);
         return checkUser;
     }
 
@@ -82,4 +93,49 @@ public class UserServiceImpl implements UserService {
     public Collection<User> getAll() {
         return userStorage.findAll();
     }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Slice<User> getAll(PageCursor cursor, Integer size) {
+        return userStorage.findAllByIdGreaterThanOrderById(cursor.idAfter(), PageRequest.of(0, size));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void forEach(Consumer<UserSnapshot> action) {
+        try (Stream<UserSnapshot> users = userStorage.streamAll()) {
+            users.forEach(action);
+        }
+    }
+
+    /**
+     * Ищет почту в базе, только если фильтр не может поручиться, что она свободна.
+     */
+    private void checkEmailFree(String email) {
+        if (registeredEmailFilter.mightBeTaken(email) && userStorage.findByEmail(email) != null) {
+            throw emailTaken(email);
+        }
+    }
+
+    /**
+     * Сохраняет пользователя сразу, чтобы нарушение уникальности почты проявилось здесь, а не при фиксации.
+     */
+    private User saveAndFlush(User user) {
+        User saved;
+        try {
+            saved = userStorage.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            throw emailTaken(user.getEmail());
+        }
+        registeredEmailFilter.add(user.getEmail());
+        return saved;
+    }
+
+    private UserAlreadyExistsException emailTaken(String email) {
+        log.error("Пользователь с почтой=" + email + " уже существует");
+        return new UserAlreadyExistsException("Пользователь с почтой=" + email + " уже существует");
+    }
 }
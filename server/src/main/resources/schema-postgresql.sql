@@ -0,0 +1,16 @@
+-- Индексы и ограничения, которые есть только в PostgreSQL. Выполняется после schema.sql.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_name_trgm_index
+    ON public.items USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS items_description_trgm_index
+    ON public.items USING gin (lower(description) gin_trgm_ops);
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE public.bookings
+    ADD CONSTRAINT bookings_approved_no_overlap
+        EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+        WHERE (status = 'APPROVED');
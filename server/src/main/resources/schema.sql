@@ -4,17 +4,35 @@ drop table if exists public.items CASCADE;
 drop table if exists public.bookings CASCADE;
 drop table if exists public.comments CASCADE;
 drop table if exists public.requests CASCADE;
+drop table if exists public.suggestions CASCADE;
+drop sequence if exists public.users_seq;
+drop sequence if exists public.requests_seq;
+drop sequence if exists public.items_seq;
+drop sequence if exists public.bookings_seq;
+drop sequence if exists public.comments_seq;
+drop sequence if exists public.suggestions_seq;
+
+-- Шаг последовательности задаёт размер пула идентификаторов Hibernate (оптимизатор pooled),
+-- поэтому его можно менять через ALTER SEQUENCE ... INCREMENT BY без правки кода.
+CREATE SEQUENCE IF NOT EXISTS public.users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS public.requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS public.items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS public.bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS public.comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS public.suggestions_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS public.users
 (
-    user_id serial PRIMARY KEY,
-    email   varchar(100) NOT NULL UNIQUE,
-    name    varchar(100) NOT NULL
+    user_id integer DEFAULT nextval('public.users_seq') PRIMARY KEY,
+    email   varchar(100) NOT NULL
+        CONSTRAINT users_email_uq UNIQUE,
+    name    varchar(100) NOT NULL,
+    version integer      NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS public.requests
 (
-    request_id   serial
+    request_id   integer DEFAULT nextval('public.requests_seq')
         primary key,
     requestor_id integer       not null
         constraint requests_users_user_id_fk
@@ -25,7 +43,7 @@ CREATE TABLE IF NOT EXISTS public.requests
 
 CREATE TABLE IF NOT EXISTS public.items
 (
-    item_id     serial
+    item_id     integer DEFAULT nextval('public.items_seq')
         primary key,
     name        varchar(255) not null,
     description text         not null,
@@ -35,12 +53,13 @@ CREATE TABLE IF NOT EXISTS public.items
             references public.users,
     request_id  integer
         constraint items_requests_request_id_fk
-            references public.requests
+            references public.requests,
+    version     integer      not null default 0
 );
 
 CREATE TABLE IF NOT EXISTS public.bookings
 (
-    booking_id serial
+    booking_id integer DEFAULT nextval('public.bookings_seq')
         primary key,
     start_date timestamp not null,
     end_date   timestamp not null,
@@ -55,7 +74,7 @@ CREATE TABLE IF NOT EXISTS public.bookings
 
 CREATE TABLE IF NOT EXISTS public.comments
 (
-    comment_id serial
+    comment_id integer DEFAULT nextval('public.comments_seq')
         primary key,
     text       varchar(1000) not null,
     item_id    integer       not null
@@ -66,3 +85,29 @@ CREATE TABLE IF NOT EXISTS public.comments
             references public.users,
     created    timestamp     not null
 );
+
+CREATE TABLE IF NOT EXISTS public.suggestions
+(
+    suggestion_id integer DEFAULT nextval('public.suggestions_seq')
+        primary key,
+    request_id    integer          not null
+        constraint suggestions_requests_request_id_fk
+            references public.requests,
+    item_id       integer          not null
+        constraint suggestions_items_item_id_fk
+            references public.items
+            on delete cascade,
+    score         double precision not null
+);
+
+CREATE INDEX IF NOT EXISTS bookings_item_id_status_start_date_index
+    ON public.bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS items_request_id_index
+    ON public.items (request_id);
+
+CREATE INDEX IF NOT EXISTS requests_requestor_id_created_index
+    ON public.requests (requestor_id, created);
+
+CREATE INDEX IF NOT EXISTS suggestions_request_id_index
+    ON public.suggestions (request_id);
@@ -0,0 +1,272 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.availability.BookingIntervalIndex;
+import ru.practicum.shareit.booking.availability.ItemCalendarCache;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.event.UserEventBroker;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.feed.RequestFeedCache;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.matching.ItemMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.ItemSuggestionRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ограничивает количество SQL-выражений на вызов сервиса вместе с преобразованием результата
+ * в ответ контроллера. Контекст персистентности перед каждым вызовом очищается, поэтому
+ * ленивые связи, не попавшие в граф загрузки запроса, добавят выражения и тест упадёт.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ServiceStatementCountTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemSuggestionRepository itemSuggestionRepository;
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    BookingService bookingService;
+
+    ItemService itemService;
+
+    ItemRequestService itemRequestService;
+
+    User owner;
+
+    User booker;
+
+    User requestor;
+
+    ItemRequest request;
+
+    Item item;
+
+    Booking waiting;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = persist(User.builder().name("owner").email("owner@test.test").build());
+        booker = persist(User.builder().name("booker").email("booker@test.test").build());
+        requestor = persist(User.builder().name("requestor").email("requestor@test.test").build());
+        request = persist(ItemRequest.builder()
+                .requestor(requestor)
+                .description("Нужна дрель")
+                .created(now.minusDays(30))
+                .build());
+        item = persist(Item.builder()
+                .owner(owner)
+                .name("Дрель")
+                .description("Ударная")
+                .available(true)
+                .request(request)
+                .build());
+        Item other = persist(Item.builder()
+                .owner(owner)
+                .name("Палатка")
+                .description("Двухместная")
+                .available(true)
+                .build());
+        persist(booking(item, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED));
+        persist(booking(item, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED));
+        persist(booking(other, now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED));
+        waiting = persist(booking(other, now.plusDays(3), now.plusDays(4), BookingStatus.WAITING));
+        persist(Comment.builder().item(item).author(booker).text("Хорошая").created(now.minusDays(8)).build());
+
+        BookingIntervalIndex bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+        bookingIntervalIndex.rebuild();
+        ItemSearchIndex itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemSearchIndex.rebuild();
+        ItemCalendarCache itemCalendarCache = new ItemCalendarCache(bookingRepository, itemRepository);
+        UserCache userCache = new UserCache(userRepository);
+        UserEventBroker userEvents = new UserEventBroker(userCache);
+        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository,
+                bookingIntervalIndex, itemCalendarCache, userCache, userEvents);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, commentRepository, bookingRepository,
+                itemRequestRepository, itemSearchIndex, bookingIntervalIndex, itemCalendarCache, userCache,
+                userEvents);
+        itemRequestService = new ItemRequestServiceImpl(userRepository, itemRequestRepository, itemRepository,
+                userCache, new RequestFeedCache(itemRequestRepository), new ItemMatcher(itemSearchIndex),
+                itemSuggestionRepository);
+        statistics = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testBookingService() {
+        assertStatements(1, () -> json(bookingService.getById(booker.getId(), waiting.getId())));
+        assertStatements(1, () -> json(bookingService.getAll(booker.getId(), BookingStatus.ALL, 0, 10)));
+        assertStatements(1, () -> json(bookingService.getAllByOwner(owner.getId(), BookingStatus.ALL, 0, 10)));
+        assertStatements(1, () -> json(bookingService.getAll(booker.getId(), BookingStatus.ALL, PageCursor.first(), 10)
+                .getContent()));
+        assertStatementsAtMost(3, () -> json(BookingMapper.toBookingResponseDto(bookingService.save(booker.getId(),
+                booking(Item.builder().id(item.getId()).build(), now.plusDays(5), now.plusDays(6), null)))));
+        assertStatementsAtMost(3, () -> json(bookingService.saveAll(booker.getId(), IntStream.range(0, 20)
+                .mapToObj(i -> booking(Item.builder().id(item.getId()).build(), now.plusDays(10 + i),
+                        now.plusDays(11 + i), null))
+                .collect(Collectors.toList()))));
+        assertStatements(2, () -> {
+            Booking approved = bookingService.changeStatus(owner.getId(), waiting.getId(), true);
+            assertEquals(BookingStatus.APPROVED, approved.getStatus());
+            json(BookingMapper.toBookingResponseDto(approved));
+        });
+
+        List<Integer> pending = IntStream.range(0, 20)
+                .mapToObj(i -> persist(booking(item, now.plusDays(40 + i), now.plusDays(41 + i), BookingStatus.WAITING))
+                        .getId())
+                .collect(Collectors.toList());
+        assertStatements(2, () -> json(bookingService.changeStatuses(owner.getId(), pending, true)));
+    }
+
+    @Test
+    void testItemService() {
+        assertStatements(4, () -> json(itemService.getItemById(item.getId(), owner.getId())));
+        assertStatements(4, () -> json(itemService.getAll(owner.getId(), 0, 10)));
+        assertStatements(4, () -> json(CommentMapper.toCommentDto(itemService.addComment(booker.getId(), item.getId(),
+                Comment.builder().text("Ещё раз").build()))));
+    }
+
+    @Test
+    void testItemRequestService() {
+        assertStatements(2, () -> json(itemRequestService.findAllByUserId(requestor.getId())));
+        assertStatements(3, () -> json(itemRequestService.findAll(owner.getId(), 0, 10)));
+        assertStatements(1, () -> json(itemRequestService.findAll(owner.getId(), 0, 10)));
+        assertStatements(3, () -> json(itemRequestService.findById(owner.getId(), request.getId())));
+        assertStatementsAtMost(5, () -> json(ItemRequestMapper.toItemRequestDto(itemRequestService.addItem(
+                booker.getId(), ItemRequest.builder().description("Нужна ударная дрель").build()))));
+    }
+
+    @Test
+    void testItemRequestService_whenUserHasManyRequests_thenStatementCountDoesNotGrow() {
+        for (int i = 0; i < 10_000; i++) {
+            ItemRequest manyRequest = persist(ItemRequest.builder()
+                    .requestor(requestor)
+                    .description("Запрос " + i)
+                    .created(now.minusMinutes(i))
+                    .build());
+            if (i % 10 == 0) {
+                persist(Item.builder()
+                        .owner(owner)
+                        .name("Ответ " + i)
+                        .description("Ответ")
+                        .available(true)
+                        .request(manyRequest)
+                        .build());
+            }
+        }
+
+        assertStatements(2, () -> json(itemRequestService.findAllByUserId(requestor.getId())));
+        // Пользователь и окно ленты загружаются один раз, дальше страницы в окне стоят один запрос за предметами.
+        assertStatements(3, () -> json(itemRequestService.findAll(owner.getId(), 0, 500)));
+        assertStatements(1, () -> json(itemRequestService.findAll(owner.getId(), 250, 250)));
+        assertStatements(1, () -> json(itemRequestService.findAll(owner.getId(), PageCursor.first(), 500)
+                .getContent()));
+        assertStatements(2, () -> json(itemRequestService.findAll(owner.getId(), 5_000, 1_000)));
+        assertStatements(2, () -> json(itemRequestService.findAll(owner.getId(), PageCursor.first(), 1_000)
+                .getContent()));
+    }
+
+    private void assertStatements(long expected, Runnable call) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+
+        call.run();
+        em.flush();
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Для вставок: пул идентификаторов последовательности может закончиться, тогда добавляется один запрос к ней.
+     */
+    private void assertStatementsAtMost(long expected, Runnable call) {
+        em.flush();
+        em.clear();
+        statistics.clear();
+
+        call.run();
+        em.flush();
+
+        assertTrue(statistics.getPrepareStatementCount() <= expected,
+                "Выполнено запросов: " + statistics.getPrepareStatementCount());
+    }
+
+    private void json(Object response) {
+        try {
+            mapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Booking booking(Item bookedItem, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return Booking.builder()
+                .item(bookedItem)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build();
+    }
+
+    private <T> T persist(T entity) {
+        return em.persist(entity);
+    }
+}
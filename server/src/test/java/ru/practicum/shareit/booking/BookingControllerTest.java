@@ -8,15 +8,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
@@ -25,10 +31,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -103,6 +113,28 @@ class BookingControllerTest {
         assertEquals(mapper.writeValueAsString(BookingMapper.toBookingResponseDto(booking)), result);
     }
 
+    @Test
+    void testSaveAll_whenAllCorrect_thenReturnResultPerEntry() throws Exception {
+        List<BookingBatchResultDto> results = List.of(
+                BookingBatchResultDto.created(BookingMapper.toBookingResponseDto(booking)),
+                BookingBatchResultDto.failed("Предмет с id=2 не найден"));
+        when(bookingService.saveAll(anyInt(), any()))
+                .thenReturn(results);
+
+        String result = mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(bookingDto, bookingDto)))
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(mapper.writeValueAsString(results), result);
+    }
+
     @Test
     void testChangeStatus() throws Exception {
         booking.setStatus(BookingStatus.REJECTED);
@@ -124,10 +156,32 @@ class BookingControllerTest {
         assertEquals(mapper.writeValueAsString(BookingMapper.toBookingResponseDto(booking)), result);
     }
 
+    @Test
+    void testChangeStatuses() throws Exception {
+        List<BookingStatusResultDto> results = List.of(
+                BookingStatusResultDto.changed(1, BookingStatus.REJECTED),
+                BookingStatusResultDto.failed(2, "Бронь с id=2 не найдена"));
+        when(bookingService.changeStatuses(1, List.of(1, 2), false))
+                .thenReturn(results);
+
+        String result = mvc.perform(patch("/bookings/status?approved=false")
+                        .content(mapper.writeValueAsString(List.of(1, 2)))
+                        .header("X-Sharer-User-Id", 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        assertEquals(mapper.writeValueAsString(results), result);
+    }
+
     @Test
     void testGetById() throws Exception {
         when(bookingService.getById(anyInt(), anyInt()))
-                .thenReturn(booking);
+                .thenReturn(BookingMapper.toBookingResponseDto(booking));
 
         String result = mvc.perform(get("/bookings/{id}", 1)
                         .header("X-Sharer-User-Id", 1)
@@ -142,6 +196,42 @@ class BookingControllerTest {
         assertEquals(mapper.writeValueAsString(BookingMapper.toBookingResponseDto(booking)), result);
     }
 
+    @Test
+    void testGetById_thenItemHasIdAndNameAndBookerHasOnlyId() throws Exception {
+        when(bookingService.getById(anyInt(), anyInt()))
+                .thenReturn(BookingMapper.toBookingResponseDto(booking));
+
+        mvc.perform(get("/bookings/{id}", 1)
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(6)))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.start").exists())
+                .andExpect(jsonPath("$.end").exists())
+                .andExpect(jsonPath("$.status").value("APPROVED"))
+                .andExpect(jsonPath("$.item.*", hasSize(2)))
+                .andExpect(jsonPath("$.item.id").value(item.getId()))
+                .andExpect(jsonPath("$.item.name").value(item.getName()))
+                .andExpect(jsonPath("$.booker.*", hasSize(1)))
+                .andExpect(jsonPath("$.booker.id").value(user.getId()));
+    }
+
+    @Test
+    void testGetAll_thenEachBookingHasSlimItemAndBooker() throws Exception {
+        when(bookingService.getAll(anyInt(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(BookingMapper.toBookingResponseDto(booking)));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.*", hasSize(2)))
+                .andExpect(jsonPath("$[0].item.name").value(item.getName()))
+                .andExpect(jsonPath("$[0].booker.*", hasSize(1)))
+                .andExpect(jsonPath("$[0].booker.id").value(user.getId()));
+    }
+
     @Test
     void testGetAll() throws Exception {
         Booking booking1 = Booking.builder()
@@ -161,7 +251,7 @@ class BookingControllerTest {
         bookings.add(booking1);
         bookings.add(booking2);
         when(bookingService.getAll(anyInt(), any(), anyInt(), anyInt()))
-                .thenReturn(bookings);
+                .thenReturn(toResponseDtos(bookings));
 
         String result = mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1)
@@ -178,6 +268,44 @@ class BookingControllerTest {
                 .collect(Collectors.toList())), result);
     }
 
+    @Test
+    void testGetAll_whenCursorPassed_thenReturnNextCursorHeader() throws Exception {
+        Booking booking1 = Booking.builder()
+                .id(2)
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.APPROVED)
+                .build();
+        when(bookingService.getAll(anyInt(), any(), any(PageCursor.class), anyInt()))
+                .thenReturn(new SliceImpl<>(toResponseDtos(List.of(booking1, booking)), PageRequest.of(0, 2), true));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "2")
+                        .param("cursor", PageCursor.after(3).encode())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.after(1).encode()));
+
+        verify(bookingService).getAll(1, BookingStatus.ALL, PageCursor.after(3), 2);
+    }
+
+    @Test
+    void testGetAll_whenCursorPageIsLast_thenNoNextCursorHeader() throws Exception {
+        when(bookingService.getAll(anyInt(), any(), any(PageCursor.class), anyInt()))
+                .thenReturn(new SliceImpl<>(toResponseDtos(List.of(booking)), PageRequest.of(0, 2), false));
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("size", "2")
+                        .param("cursor", "")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+
+        verify(bookingService).getAll(1, BookingStatus.ALL, PageCursor.first(), 2);
+    }
+
     @Test
     void testGetAll_whenStateIsUnknown() throws Exception {
         Booking booking1 = Booking.builder()
@@ -196,7 +324,7 @@ class BookingControllerTest {
         bookings.add(booking1);
         bookings.add(booking2);
         when(bookingService.getAll(anyInt(), any(), anyInt(), anyInt()))
-                .thenReturn(bookings);
+                .thenReturn(toResponseDtos(bookings));
 
         String result = mvc.perform(get("/bookings?state=sdfsdf")
                         .header("X-Sharer-User-Id", 1)
@@ -232,7 +360,7 @@ class BookingControllerTest {
         bookings.add(booking1);
         bookings.add(booking2);
         when(bookingService.getAllByOwner(anyInt(), any(), anyInt(), anyInt()))
-                .thenReturn(bookings);
+                .thenReturn(toResponseDtos(bookings));
 
         String result = mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1)
@@ -267,7 +395,7 @@ class BookingControllerTest {
         bookings.add(booking1);
         bookings.add(booking2);
         when(bookingService.getAllByOwner(anyInt(), any(), anyInt(), anyInt()))
-                .thenReturn(bookings);
+                .thenReturn(toResponseDtos(bookings));
 
         String result = mvc.perform(get("/bookings/owner?state=sdfsdf")
                         .header("X-Sharer-User-Id", 1)
@@ -283,4 +411,10 @@ class BookingControllerTest {
                 .map(BookingMapper::toBookingResponseDto)
                 .collect(Collectors.toList())), result);
     }
-}
\ No newline at end of file
+
+    private static List<BookingResponseDto> toResponseDtos(List<Booking> bookings) {
+        return bookings.stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList());
+    }
+}
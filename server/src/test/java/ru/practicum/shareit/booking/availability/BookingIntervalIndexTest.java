@@ -0,0 +1,164 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    BookingRepository bookingRepository;
+    BookingIntervalIndex index;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        index = new BookingIntervalIndex(bookingRepository);
+        item = Item.builder().id(1).build();
+        when(bookingRepository.findAllIntervals(BookingStatus.APPROVED)).thenReturn(List.of(
+                new BookingInterval(10, 1, hour(10), hour(20)),
+                new BookingInterval(11, 2, hour(0), hour(100))
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    void testIsFree_whenApprovedBookingOverlaps_thenFalse() {
+        assertFalse(index.isFree(1, hour(15), hour(25)));
+        assertTrue(index.isFree(1, hour(20), hour(25)));
+        assertTrue(index.isFree(3, hour(15), hour(25)));
+    }
+
+    @Test
+    void testIsFree_whenNotBuilt_thenAskDatabase() {
+        BookingIntervalIndex notBuilt = new BookingIntervalIndex(bookingRepository);
+        when(bookingRepository.existsByItemIdAndStatusIsAndStartBeforeAndEndAfter(
+                1, BookingStatus.APPROVED, hour(25), hour(15))).thenReturn(true);
+
+        assertFalse(notBuilt.isFree(1, hour(15), hour(25)));
+    }
+
+    @Test
+    void testReserve_whenOverlaps_thenThrowBookingOverlapException() {
+        index.reserve(booking(20, hour(30), hour(40)));
+
+        BookingOverlapException thrown = assertThrows(BookingOverlapException.class,
+                () -> index.reserve(booking(21, hour(35), hour(45))));
+
+        assertEquals("Предмет с id=1 уже забронирован на это время", thrown.getMessage());
+        assertFalse(index.isFree(1, hour(39), hour(41)));
+    }
+
+    @Test
+    void testReserve_whenTransactionRolledBack_thenReservationReleased() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(booking(20, hour(30), hour(40)));
+            assertFalse(index.isFree(1, hour(30), hour(40)));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(index.isFree(1, hour(30), hour(40)));
+    }
+
+    @Test
+    void testReserve_whenDuringRebuild_thenReservationKeptAfterRebuild() {
+        when(bookingRepository.findAllIntervals(BookingStatus.APPROVED)).thenAnswer(invocation -> {
+            index.reserve(booking(20, hour(30), hour(40)));
+            return List.of(new BookingInterval(10, 1, hour(10), hour(20)));
+        });
+
+        index.rebuild();
+
+        assertFalse(index.isFree(1, hour(30), hour(40)));
+        assertThrows(BookingOverlapException.class, () -> index.reserve(booking(21, hour(35), hour(45))));
+    }
+
+    @Test
+    void testReserve_whenRolledBackDuringRebuild_thenReservationReleasedAfterRebuild() {
+        when(bookingRepository.findAllIntervals(BookingStatus.APPROVED)).thenAnswer(invocation -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                index.reserve(booking(20, hour(30), hour(40)));
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            return List.of(new BookingInterval(10, 1, hour(10), hour(20)));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.isFree(1, hour(30), hour(40)));
+    }
+
+    @Test
+    void testReserve_whenApprovalsRace_thenOnlyOneWins() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Booking booking = booking(100 + i, hour(50 + i), hour(60 + i));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        index.reserve(booking);
+                        reserved.incrementAndGet();
+                    } catch (BookingOverlapException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, reserved.get());
+        assertEquals(threads - 1, rejected.get());
+    }
+
+    private Booking booking(int id, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.WAITING)
+                .build();
+    }
+
+    private LocalDateTime hour(int hours) {
+        return base.plusHours(hours);
+    }
+}
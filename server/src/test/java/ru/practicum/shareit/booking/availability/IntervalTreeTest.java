@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalTreeTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void testOverlaps_whenIntervalsTouch_thenNoOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, hour(10), hour(12));
+
+        assertFalse(tree.overlaps(hour(12), hour(14)));
+        assertFalse(tree.overlaps(hour(8), hour(10)));
+        assertTrue(tree.overlaps(hour(11), hour(13)));
+        assertTrue(tree.overlaps(hour(9), hour(15)));
+        assertTrue(tree.overlaps(hour(10), hour(11)));
+    }
+
+    @Test
+    void testRemove_whenRemoved_thenIntervalFree() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, hour(10), hour(12));
+        tree.insert(2, hour(10), hour(11));
+
+        assertTrue(tree.remove(1, hour(10)));
+        assertFalse(tree.remove(1, hour(10)));
+
+        assertEquals(1, tree.size());
+        assertFalse(tree.overlaps(hour(11), hour(12)));
+        assertTrue(tree.overlaps(hour(10), hour(12)));
+    }
+
+    @Test
+    void testOverlaps_whenLongIntervalHiddenInLeftSubtree_thenFound() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1, hour(0), hour(100));
+        for (int i = 1; i <= 20; i++) {
+            tree.insert(i + 1, hour(i * 10), hour(i * 10 + 1));
+        }
+
+        assertTrue(tree.overlaps(hour(55), hour(56)));
+        assertFalse(tree.overlaps(hour(155), hour(156)));
+    }
+
+    @Test
+    void testOverlaps_whenRandomInsertsAndRemoves_thenMatchesLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<int[]> intervals = new ArrayList<>();
+
+        for (int id = 0; id < 2000; id++) {
+            int start = random.nextInt(10_000);
+            int[] interval = {id, start, start + 1 + random.nextInt(50)};
+            tree.insert(id, hour(interval[1]), hour(interval[2]));
+            intervals.add(interval);
+            if (random.nextInt(3) == 0) {
+                int[] removed = intervals.remove(random.nextInt(intervals.size()));
+                assertTrue(tree.remove(removed[0], hour(removed[1])));
+            }
+        }
+
+        assertEquals(intervals.size(), tree.size());
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(10_100);
+            int end = start + 1 + random.nextInt(30);
+            boolean expected = intervals.stream().anyMatch(interval -> interval[1] < end && interval[2] > start);
+            assertEquals(expected, tree.overlaps(hour(start), hour(end)));
+        }
+    }
+
+    private LocalDateTime hour(int hours) {
+        return base.plusHours(hours);
+    }
+}
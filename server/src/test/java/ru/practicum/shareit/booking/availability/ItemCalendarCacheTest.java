@@ -0,0 +1,87 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ItemCalendarCacheTest {
+    BookingRepository bookingRepository;
+    ItemRepository itemRepository;
+    ItemCalendarCache cache;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        itemRepository = Mockito.mock(ItemRepository.class);
+        cache = new ItemCalendarCache(bookingRepository, itemRepository);
+        when(itemRepository.existsById(1)).thenReturn(true);
+    }
+
+    @Test
+    void testEvict_whenInTransaction_thenCalendarKeptUntilCompletion() {
+        cache.get(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(1);
+            cache.get(1);
+            verify(bookingRepository, times(1)).findIntervalsOfItem(1, BookingStatus.APPROVED);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cache.get(1);
+        verify(bookingRepository, times(2)).findIntervalsOfItem(1, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void testGet_whenItemNotFound_thenThrowAndDoNotCache() {
+        when(itemRepository.existsById(99)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> cache.get(99));
+        assertThrows(ItemNotFoundException.class, () -> cache.get(99));
+
+        assertEquals(0, cache.size());
+        verify(itemRepository, times(2)).existsById(99);
+    }
+
+    @Test
+    void testGet_whenFull_thenOldCalendarsEvicted() {
+        cache = new ItemCalendarCache(bookingRepository, itemRepository, 2);
+        when(itemRepository.existsById(anyInt())).thenReturn(true);
+
+        for (int itemId = 1; itemId <= 5; itemId++) {
+            cache.get(itemId);
+        }
+
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void testGet_whenEvictedWhileLoading_thenLoadedCalendarNotCached() {
+        when(bookingRepository.findIntervalsOfItem(1, BookingStatus.WAITING)).thenAnswer(invocation -> {
+            cache.evict(1);
+            return Collections.emptyList();
+        });
+
+        cache.get(1);
+
+        assertEquals(0, cache.size());
+    }
+}
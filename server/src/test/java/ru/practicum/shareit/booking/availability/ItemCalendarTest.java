@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.availability;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemCalendarTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void testOf_whenIntervalsOverlapOrTouch_thenMerged() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(
+                new BookingInterval(1, 1, hour(0), hour(10)),
+                new BookingInterval(2, 1, hour(5), hour(8)),
+                new BookingInterval(3, 1, hour(10), hour(12)),
+                new BookingInterval(4, 1, hour(20), hour(30))
+        ), List.of(
+                new BookingInterval(5, 1, hour(6), hour(9))
+        ));
+
+        assertEquals(List.of(interval(0, 12), interval(20, 30)), calendar.getApproved());
+        assertEquals(List.of(interval(6, 9)), calendar.getWaiting());
+    }
+
+    @Test
+    void testBetween_thenOnlyOverlappingIntervalsClippedToPeriod() {
+        ItemCalendar calendar = ItemCalendar.of(List.of(
+                new BookingInterval(1, 1, hour(0), hour(10)),
+                new BookingInterval(2, 1, hour(20), hour(30)),
+                new BookingInterval(3, 1, hour(40), hour(50))
+        ), List.of());
+
+        assertEquals(List.of(interval(5, 10), interval(20, 25)), calendar.between(hour(5), hour(25)).getApproved());
+        assertEquals(List.of(interval(20, 30)), calendar.between(hour(10), hour(40)).getApproved());
+        assertTrue(calendar.between(hour(30), hour(40)).getApproved().isEmpty());
+        assertTrue(calendar.between(hour(5), hour(25)).getWaiting().isEmpty());
+    }
+
+    private ItemCalendar.Interval interval(int start, int end) {
+        return new ItemCalendar.Interval(hour(start), hour(end));
+    }
+
+    private LocalDateTime hour(int hours) {
+        return base.plusHours(hours);
+    }
+}
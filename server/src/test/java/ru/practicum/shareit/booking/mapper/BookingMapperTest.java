@@ -54,9 +54,9 @@ class BookingMapperTest {
                 .id(1)
                 .start(LocalDateTime.now())
                 .end(LocalDateTime.now().plusHours(1))
-                .booker(new User())
+                .booker(User.builder().id(2).build())
                 .status(BookingStatus.APPROVED)
-                .item(new Item())
+                .item(Item.builder().id(3).name("Дрель").build())
                 .build();
 
         BookingResponseDto bookingResponseDto = BookingMapper.toBookingResponseDto(booking);
@@ -64,9 +64,10 @@ class BookingMapperTest {
         assertEquals(booking.getId(), bookingResponseDto.getId());
         assertEquals(booking.getStart(), bookingResponseDto.getStart());
         assertEquals(booking.getEnd(), bookingResponseDto.getEnd());
-        assertEquals(booking.getBooker(), bookingResponseDto.getBooker());
+        assertEquals(booking.getBooker().getId(), bookingResponseDto.getBooker().getId());
         assertEquals(booking.getStatus(), bookingResponseDto.getStatus());
-        assertEquals(booking.getItem(), bookingResponseDto.getItem());
+        assertEquals(booking.getItem().getId(), bookingResponseDto.getItem().getId());
+        assertEquals(booking.getItem().getName(), bookingResponseDto.getItem().getName());
     }
 
 }
\ No newline at end of file
@@ -1,21 +1,40 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.booking.availability.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.errorhandling.ErrorHandler;
+import ru.practicum.shareit.errorhandling.ErrorResponse;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class BookingRepositoryTest {
 
     @Autowired
@@ -66,29 +85,255 @@ class BookingRepositoryTest {
 
     @Test
     void testFindLastBooking_ifExists() {
-        Booking findedBooking = bookingRepository.findLastBooking(itemOwner.getId(), item.getId(),
-                LocalDateTime.now().plusDays(2), BookingStatus.APPROVED).get(0);
-        assertEquals(booking, findedBooking);
+        Optional<BookingShortDto> findedBooking = bookingRepository.findLastBooking(item.getId(),
+                LocalDateTime.now().plusDays(2), BookingStatus.APPROVED);
+        assertEquals(Optional.of(new BookingShortDto(booking.getId(), itemBooker.getId())), findedBooking);
     }
 
     @Test
     void testFindLastBooking_ifNotExists() {
-        List<Booking> findedBooking = bookingRepository.findLastBooking(itemOwner.getId(), item.getId(),
+        Optional<BookingShortDto> findedBooking = bookingRepository.findLastBooking(item.getId(),
                 LocalDateTime.now().minusDays(11), BookingStatus.APPROVED);
-        assertEquals(0, findedBooking.size());
+        assertTrue(findedBooking.isEmpty());
     }
 
     @Test
     void testFindNextBooking_ifExists() {
-        Booking findedBooking = bookingRepository.findNextBooking(itemOwner.getId(), item.getId(),
-                LocalDateTime.now().minusDays(11), BookingStatus.APPROVED).get(0);
-        assertEquals(booking, findedBooking);
+        Optional<BookingShortDto> findedBooking = bookingRepository.findNextBooking(item.getId(),
+                LocalDateTime.now().minusDays(11), BookingStatus.APPROVED);
+        assertEquals(Optional.of(new BookingShortDto(booking.getId(), itemBooker.getId())), findedBooking);
     }
 
     @Test
     void testFindNextBooking_ifNotExists() {
-        List<Booking> findedBooking = bookingRepository.findNextBooking(itemOwner.getId(), item.getId(),
+        Optional<BookingShortDto> findedBooking = bookingRepository.findNextBooking(item.getId(),
                 LocalDateTime.now().plusDays(2), BookingStatus.APPROVED);
-        assertEquals(0, findedBooking.size());
+        assertTrue(findedBooking.isEmpty());
+    }
+
+    @Test
+    void testFindLastAndNextBooking_readOneRowRegardlessOfHistorySize() {
+        addApprovedHistory(10);
+        long rowsWithShortHistory = countRowsReadByLastAndNextBooking();
+
+        addApprovedHistory(200);
+        long rowsWithLongHistory = countRowsReadByLastAndNextBooking();
+
+        assertEquals(2, rowsWithShortHistory);
+        assertEquals(rowsWithShortHistory, rowsWithLongHistory);
+    }
+
+    @Test
+    void testFindLastBookings_returnsLatestBookingPerItem() {
+        Item item2 = Item.builder()
+                .owner(itemOwner)
+                .name("Item2 name")
+                .available(true)
+                .description("Desc2 word")
+                .build();
+        em.persist(item2);
+        Booking olderBooking = Booking.builder()
+                .item(item)
+                .booker(itemBooker)
+                .start(LocalDateTime.now().minusDays(20))
+                .end(LocalDateTime.now().minusDays(19))
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(olderBooking);
+        Booking item2Booking = Booking.builder()
+                .item(item2)
+                .booker(itemBooker)
+                .start(LocalDateTime.now().minusDays(5))
+                .end(LocalDateTime.now().minusDays(4))
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(item2Booking);
+
+        List<Booking> lastBookings = bookingRepository.findLastBookings(List.of(item.getId(), item2.getId()),
+                LocalDateTime.now(), BookingStatus.APPROVED);
+
+        assertEquals(2, lastBookings.size());
+        assertTrue(lastBookings.contains(booking));
+        assertTrue(lastBookings.contains(item2Booking));
+    }
+
+    @Test
+    void testFindNextBookings_returnsNearestBookingPerItem() {
+        Booking laterBooking = Booking.builder()
+                .item(item)
+                .booker(itemBooker)
+                .start(LocalDateTime.now().plusDays(20))
+                .end(LocalDateTime.now().plusDays(21))
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(laterBooking);
+        Booking nearestBooking = Booking.builder()
+                .item(item)
+                .booker(itemBooker)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(3))
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(nearestBooking);
+
+        List<Booking> nextBookings = bookingRepository.findNextBookings(List.of(item.getId()),
+                LocalDateTime.now(), BookingStatus.APPROVED);
+
+        assertEquals(List.of(nearestBooking), nextBookings);
+    }
+
+    @Test
+    void testFindIntervalsOfItem_returnsBookingsOfStatusOrderedByStart() {
+        Booking earlier = Booking.builder()
+                .item(item)
+                .booker(itemBooker)
+                .start(booking.getStart().minusDays(5))
+                .end(booking.getStart().minusDays(4))
+                .status(BookingStatus.APPROVED)
+                .build();
+        em.persist(earlier);
+        em.persist(Booking.builder()
+                .item(item)
+                .booker(itemBooker)
+                .start(booking.getStart().minusDays(3))
+                .end(booking.getStart().minusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+
+        List<BookingInterval> intervals = bookingRepository.findIntervalsOfItem(item.getId(), BookingStatus.APPROVED);
+
+        assertEquals(List.of(earlier.getId(), booking.getId()), intervals.stream()
+                .map(BookingInterval::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testFindAllByBookerIdAndIdLessThan_whenWalkingByCursor_thenPagesDoNotOverlap() {
+        addApprovedHistory(2);
+        PageRequest limit = PageRequest.of(0, 2);
+
+        List<BookingResponseDto> firstPage = bookingRepository.findAllByBookerIdAndIdLessThanOrderByIdDesc(
+                itemBooker.getId(), Integer.MAX_VALUE, limit).getContent();
+        List<BookingResponseDto> secondPage = bookingRepository.findAllByBookerIdAndIdLessThanOrderByIdDesc(
+                itemBooker.getId(), firstPage.get(1).getId(), limit).getContent();
+        Slice<BookingResponseDto> lastPage = bookingRepository.findAllByBookerIdAndIdLessThanOrderByIdDesc(
+                itemBooker.getId(), secondPage.get(1).getId(), limit);
+
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertFalse(lastPage.hasNext());
+        assertTrue(firstPage.get(1).getId() > secondPage.get(0).getId());
+        assertTrue(secondPage.get(1).getId() > lastPage.getContent().get(0).getId());
+        assertEquals(booking.getId(), lastPage.getContent().get(0).getId());
+    }
+
+    @Test
+    void testUpdateStatusOfOwner_changesOnlyWaitingBookingsOfOwner() {
+        Booking waiting = em.persist(Booking.builder()
+                .item(item)
+                .booker(itemBooker)
+                .start(LocalDateTime.now().plusDays(5))
+                .end(LocalDateTime.now().plusDays(6))
+                .status(BookingStatus.WAITING)
+                .build());
+        em.flush();
+        List<Integer> ids = List.of(booking.getId(), waiting.getId());
+
+        int foreignOwner = bookingRepository.updateStatusOfOwner(ids, itemBooker.getId(), BookingStatus.WAITING,
+                BookingStatus.REJECTED);
+        int updated = bookingRepository.updateStatusOfOwner(ids, itemOwner.getId(), BookingStatus.WAITING,
+                BookingStatus.REJECTED);
+        em.clear();
+
+        assertEquals(0, foreignOwner);
+        assertEquals(1, updated);
+        assertEquals(BookingStatus.APPROVED, em.find(Booking.class, booking.getId()).getStatus());
+        assertEquals(BookingStatus.REJECTED, em.find(Booking.class, waiting.getId()).getStatus());
+        assertEquals(List.of(booking.getId()),
+                bookingRepository.findIdsWithStatusOtherThan(ids, BookingStatus.REJECTED));
+        assertEquals(2, bookingRepository.findAllByIdInAndItemOwnerId(ids, itemOwner.getId()).size());
+        assertTrue(bookingRepository.findAllByIdInAndItemOwnerId(ids, itemBooker.getId()).isEmpty());
+    }
+
+    @Test
+    void testSaveAll_insertsInBatches() {
+        em.flush();
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        List<Booking> bookings = IntStream.range(0, 120)
+                .mapToObj(i -> Booking.builder()
+                        .item(item)
+                        .booker(itemBooker)
+                        .start(LocalDateTime.now().plusDays(i))
+                        .end(LocalDateTime.now().plusDays(i).plusHours(1))
+                        .status(BookingStatus.WAITING)
+                        .build())
+                .collect(Collectors.toList());
+        bookingRepository.saveAll(bookings);
+        em.flush();
+
+        assertEquals(120, bookings.stream().map(Booking::getId).distinct().count());
+        assertTrue(statistics.getPrepareStatementCount() <= 6);
+    }
+
+    @Test
+    void testSave_whenBookerDoesNotExist_thenForeignKeyViolationMapsToUserNotFound() {
+        Booking orphan = Booking.builder()
+                .item(item)
+                .booker(em.getEntityManager().getReference(User.class, Integer.MAX_VALUE))
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .status(BookingStatus.WAITING)
+                .build();
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> bookingRepository.saveAndFlush(orphan));
+        ResponseEntity<ErrorResponse> response = new ErrorHandler().handleDataIntegrityViolationException(exception);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Пользователь не найден", response.getBody().getError());
+    }
+
+    private void addApprovedHistory(int count) {
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = LocalDateTime.now().minusYears(1).plusHours(i);
+            em.persist(Booking.builder()
+                    .item(item)
+                    .booker(itemBooker)
+                    .start(start)
+                    .end(start.plusMinutes(30))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+            em.persist(Booking.builder()
+                    .item(item)
+                    .booker(itemBooker)
+                    .start(start.plusYears(2))
+                    .end(start.plusYears(2).plusMinutes(30))
+                    .status(BookingStatus.APPROVED)
+                    .build());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private long countRowsReadByLastAndNextBooking() {
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        assertTrue(bookingRepository.findLastBooking(item.getId(), LocalDateTime.now(), BookingStatus.APPROVED)
+                .isPresent());
+        assertTrue(bookingRepository.findNextBooking(item.getId(), LocalDateTime.now(), BookingStatus.APPROVED)
+                .isPresent());
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        return Arrays.stream(statistics.getQueries())
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionRowCount())
+                .sum();
     }
-}
\ No newline at end of file
+}
@@ -3,19 +3,36 @@ package ru.practicum.shareit.booking.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.availability.BookingIntervalIndex;
+import ru.practicum.shareit.booking.availability.ItemCalendarCache;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
 import ru.practicum.shareit.booking.exception.BookingBadRequestException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.exception.BookingStatusConflictException;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.event.UserEvent;
+import ru.practicum.shareit.event.UserEventBroker;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exception.ItemNotAvailableException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.cache.UserSnapshot;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -29,13 +46,16 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 class BookingServiceImplTest {
     BookingService bookingService;
     BookingRepository bookingRepository;
     ItemRepository itemRepository;
     UserRepository userRepository;
+    BookingIntervalIndex bookingIntervalIndex;
+    ItemCalendarCache itemCalendarCache;
+    UserEventBroker userEvents;
     Item item;
     ItemDto itemDto;
     User user;
@@ -46,10 +66,18 @@ class BookingServiceImplTest {
         userRepository = Mockito.mock(UserRepository.class);
         itemRepository = Mockito.mock(ItemRepository.class);
         bookingRepository = Mockito.mock(BookingRepository.class);
+        userEvents = Mockito.mock(UserEventBroker.class);
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+        itemCalendarCache = new ItemCalendarCache(bookingRepository, itemRepository);
+        bookingIntervalIndex.rebuild();
         bookingService = new BookingServiceImpl(
                 bookingRepository,
                 userRepository,
-                itemRepository
+                itemRepository,
+                bookingIntervalIndex,
+                itemCalendarCache,
+                new UserCache(userRepository),
+                userEvents
         );
         user = User.builder()
                 .id(1)
@@ -79,22 +107,22 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void testSave_whenUserNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.empty());
-
-        UserNotFoundException thrown = assertThrows(
-                UserNotFoundException.class,
-                () -> bookingService.save(99, booking)
-        );
+    void testSave_whenUserNotFound_thenForeignKeyViolationIsPropagated() {
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(User.builder().id(99).build());
+        when(itemRepository.findById(anyInt()))
+                .thenReturn(Optional.of(item));
+        when(bookingRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("bookings_users_user_id_fk"));
 
-        assertTrue(thrown.getMessage().contains("Пользователь с id=99 не найден"));
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.save(99, booking));
+        verify(userRepository, never()).findById(anyInt());
     }
 
     @Test
     void testSave_whenItemNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(user);
         when(itemRepository.findById(anyInt()))
                 .thenReturn(Optional.empty());
 
@@ -108,8 +136,8 @@ class BookingServiceImplTest {
 
     @Test
     void testSave_whenUserIsOwner_thenThrowBookingNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(user);
         when(itemRepository.findById(anyInt()))
                 .thenReturn(Optional.of(item));
 
@@ -124,8 +152,8 @@ class BookingServiceImplTest {
     @Test
     void testSave_whenItemIsNotAvailable_thenThrowItemNotAvailableException() {
         item.setAvailable(false);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(user);
         when(itemRepository.findById(anyInt()))
                 .thenReturn(Optional.of(item));
 
@@ -141,8 +169,8 @@ class BookingServiceImplTest {
     void testSave_whenDatesNotCorrect_thenThrowBookingBadRequestException() {
         booking.setStart(LocalDateTime.now());
         booking.setEnd(LocalDateTime.now().minusDays(2));
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(user);
         when(itemRepository.findById(anyInt()))
                 .thenReturn(Optional.of(item));
 
@@ -156,8 +184,8 @@ class BookingServiceImplTest {
 
     @Test
     void testSave_whenAllCorrect_thenSaveBooking() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(user);
         when(itemRepository.findById(anyInt()))
                 .thenReturn(Optional.of(item));
         when(bookingRepository.save(any()))
@@ -167,11 +195,118 @@ class BookingServiceImplTest {
 
 
         assertEquals(booking, bookingResult);
+        verify(userEvents).publish(user.getId(), UserEvent.bookingCreated(booking.getId(), item.getId()));
+    }
+
+    @Test
+    void testSave_whenItemAlreadyBookedForInterval_thenThrowBookingOverlapException() {
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(user);
+        when(itemRepository.findById(anyInt()))
+                .thenReturn(Optional.of(item));
+        bookingIntervalIndex.reserve(booking);
+        Booking overlapping = Booking.builder()
+                .item(item)
+                .start(booking.getStart().plusHours(1))
+                .end(booking.getEnd().plusHours(1))
+                .build();
+
+        BookingOverlapException thrown = assertThrows(
+                BookingOverlapException.class,
+                () -> bookingService.save(99, overlapping)
+        );
+
+        assertEquals("Предмет с id=1 уже забронирован на это время", thrown.getMessage());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testSaveAll_whenUserNotFound_thenForeignKeyViolationIsPropagated() {
+        booking.setStart(LocalDateTime.now().plusDays(1));
+        booking.setEnd(LocalDateTime.now().plusDays(2));
+        when(userRepository.getReferenceById(anyInt()))
+                .thenReturn(User.builder().id(99).build());
+        when(itemRepository.findAllById(any()))
+                .thenReturn(List.of(item));
+        when(bookingRepository.saveAll(any()))
+                .thenThrow(new DataIntegrityViolationException("bookings_users_user_id_fk"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.saveAll(99, List.of(booking)));
+        verify(userRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void testSaveAll_whenSomeEntriesInvalid_thenSaveOnlyValidAndReportErrorsInOrder() {
+        User booker = User.builder().id(2).name("Booker").email("booker@test.test").build();
+        Item unavailable = Item.builder().id(2).name("unavailable").owner(user).available(false).build();
+        Booking valid = Booking.builder()
+                .item(Item.builder().id(1).build())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        Booking ofUnavailable = Booking.builder()
+                .item(Item.builder().id(2).build())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        Booking ofMissing = Booking.builder()
+                .item(Item.builder().id(3).build())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+        when(userRepository.getReferenceById(2))
+                .thenReturn(booker);
+        when(itemRepository.findAllById(any()))
+                .thenReturn(List.of(item, unavailable));
+
+        List<BookingBatchResultDto> results = bookingService.saveAll(2, List.of(valid, ofUnavailable, ofMissing));
+
+        assertEquals(3, results.size());
+        assertNull(results.get(0).getError());
+        assertEquals(item.getId(), results.get(0).getBooking().getItem().getId());
+        assertEquals(booker.getId(), results.get(0).getBooking().getBooker().getId());
+        assertEquals(BookingStatus.WAITING, results.get(0).getBooking().getStatus());
+        assertNull(results.get(1).getBooking());
+        assertEquals("Предмет недоступен для бронирования", results.get(1).getError());
+        assertEquals("Предмет с id=3 не найден", results.get(2).getError());
+        verify(itemRepository, times(1)).findAllById(any());
+        verify(itemRepository, never()).findById(anyInt());
+        verify(bookingRepository).saveAll(List.of(valid));
+    }
+
+    @Test
+    void testChangeStatus_whenApprovedBookingOverlaps_thenThrowBookingOverlapException() {
+        bookingIntervalIndex.reserve(booking);
+        Booking waiting = Booking.builder()
+                .id(2)
+                .status(BookingStatus.WAITING)
+                .booker(user)
+                .item(item)
+                .start(booking.getStart().minusMinutes(30))
+                .end(booking.getStart().plusMinutes(30))
+                .build();
+        when(bookingRepository.updateStatusOfOwner(List.of(2), 1, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+        when(bookingRepository.findById(anyInt()))
+                .thenReturn(Optional.of(waiting));
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.changeStatus(1, 2, true));
+
+        assertEquals(BookingStatus.WAITING, waiting.getStatus());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testChangeStatus_whenDatabaseRejectsOverlap_thenThrowBookingOverlapException() {
+        doThrow(new DataIntegrityViolationException("bookings_approved_no_overlap"))
+                .when(bookingRepository).updateStatusOfOwner(any(), anyInt(), any(), any());
+
+        assertThrows(BookingOverlapException.class, () -> bookingService.changeStatus(1, booking.getId(), true));
     }
 
     @Test
     void testChangeStatus_whenUserIsNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
+        when(userRepository.findSnapshotById(anyInt()))
                 .thenReturn(Optional.empty());
 
         UserNotFoundException thrown = assertThrows(
@@ -184,8 +319,8 @@ class BookingServiceImplTest {
 
     @Test
     void testChangeStatus_whenBookingIsNotFound_thenThrowBookingNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findById(anyInt()))
                 .thenReturn(Optional.empty());
 
@@ -199,8 +334,8 @@ class BookingServiceImplTest {
 
     @Test
     void testChangeStatus_whenUserIsNotOwner_thenThrowBookingNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findById(anyInt()))
                 .thenReturn(Optional.of(booking));
 
@@ -214,8 +349,8 @@ class BookingServiceImplTest {
 
     @Test
     void testChangeStatus_whenBookingStatusIsNotWaiting_thenThrowBookingBadRequestExceptionn() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findById(anyInt()))
                 .thenReturn(Optional.of(booking));
 
@@ -227,6 +362,93 @@ class BookingServiceImplTest {
         assertTrue(thrown.getMessage().contains("Бронь уже подтверждена или отклонена"));
     }
 
+    @Test
+    void testChangeStatuses_whenUserNotFound_thenThrowUserNotFoundException() {
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> bookingService.changeStatuses(99, List.of(1), true));
+        verify(bookingRepository, never()).updateStatusOfOwner(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testChangeStatuses_whenSomeBookingsCannotChange_thenUpdateOthersInOneQuery() {
+        bookingIntervalIndex.reserve(booking);
+        Booking free = Booking.builder()
+                .id(2)
+                .status(BookingStatus.WAITING)
+                .booker(user)
+                .item(item)
+                .start(booking.getEnd().plusDays(1))
+                .end(booking.getEnd().plusDays(2))
+                .build();
+        Booking overlapping = Booking.builder()
+                .id(3)
+                .status(BookingStatus.WAITING)
+                .booker(user)
+                .item(item)
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .build();
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(bookingRepository.findAllByIdInAndItemOwnerId(any(), anyInt()))
+                .thenReturn(List.of(booking, free, overlapping));
+        when(bookingRepository.updateStatusOfOwner(List.of(2), 1, BookingStatus.WAITING, BookingStatus.APPROVED))
+                .thenReturn(1);
+
+        List<BookingStatusResultDto> results = bookingService.changeStatuses(1, List.of(2, 1, 3, 4, 2), true);
+
+        assertEquals(List.of(
+                BookingStatusResultDto.changed(2, BookingStatus.APPROVED),
+                BookingStatusResultDto.failed(1, "Бронь уже подтверждена или отклонена"),
+                BookingStatusResultDto.failed(3, "Предмет с id=1 уже забронирован на это время"),
+                BookingStatusResultDto.failed(4, "Бронь с id=4 не найдена")), results);
+        verify(bookingRepository, times(1)).updateStatusOfOwner(any(), anyInt(), any(), any());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testChangeStatuses_whenRowsChangedConcurrently_thenThrowConflictNamingChangedBookings() {
+        booking.setStatus(BookingStatus.WAITING);
+        Booking other = Booking.builder()
+                .id(2)
+                .status(BookingStatus.WAITING)
+                .booker(user)
+                .item(item)
+                .start(booking.getEnd().plusDays(1))
+                .end(booking.getEnd().plusDays(2))
+                .build();
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(bookingRepository.findAllByIdInAndItemOwnerId(any(), anyInt()))
+                .thenReturn(List.of(booking, other));
+        when(bookingRepository.updateStatusOfOwner(any(), anyInt(), any(), any()))
+                .thenReturn(1);
+        when(bookingRepository.findIdsWithStatusOtherThan(List.of(booking.getId(), 2), BookingStatus.REJECTED))
+                .thenReturn(List.of(2));
+
+        BookingStatusConflictException thrown = assertThrows(BookingStatusConflictException.class,
+                () -> bookingService.changeStatuses(1, List.of(booking.getId(), 2), false));
+
+        assertTrue(thrown.getMessage().contains("[2]"));
+    }
+
+    @Test
+    void testChangeStatus_whenApproved_thenEvictItemCalendar() {
+        booking.setStatus(BookingStatus.WAITING);
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(bookingRepository.updateStatusOfOwner(any(), anyInt(), any(), any())).thenReturn(1);
+        when(bookingRepository.findById(anyInt())).thenReturn(Optional.of(booking));
+        itemCalendarCache.get(item.getId());
+        itemCalendarCache.get(item.getId());
+
+        bookingService.changeStatus(1, booking.getId(), true);
+        itemCalendarCache.get(item.getId());
+
+        verify(bookingRepository, times(2)).findIntervalsOfItem(item.getId(), BookingStatus.APPROVED);
+    }
+
     @Test
     void testChangeStatus_whenApproved_thenReturnUpdatedBooking() {
         Booking expectedBooking = Booking.builder()
@@ -237,17 +459,19 @@ class BookingServiceImplTest {
                 .end(booking.getEnd())
                 .id(booking.getId())
                 .build();
-        booking.setStatus(BookingStatus.WAITING);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(bookingRepository.updateStatusOfOwner(List.of(booking.getId()), 1, BookingStatus.WAITING,
+                BookingStatus.APPROVED))
+                .thenReturn(1);
         when(bookingRepository.findById(anyInt()))
-                .thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any()))
-                .thenReturn(expectedBooking);
+                .thenReturn(Optional.of(expectedBooking));
 
         Booking bookingUpdated = bookingService.changeStatus(1, booking.getId(), true);
 
         assertEquals(expectedBooking, bookingUpdated);
+        verify(userRepository, never()).findById(anyInt());
+        verify(bookingRepository, never()).save(any());
+        verify(userEvents).publish(user.getId(),
+                UserEvent.bookingStatusChanged(booking.getId(), item.getId(), BookingStatus.APPROVED));
     }
 
     @Test
@@ -260,22 +484,22 @@ class BookingServiceImplTest {
                 .end(booking.getEnd())
                 .id(booking.getId())
                 .build();
-        booking.setStatus(BookingStatus.WAITING);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(bookingRepository.updateStatusOfOwner(List.of(booking.getId()), 1, BookingStatus.WAITING,
+                BookingStatus.REJECTED))
+                .thenReturn(1);
         when(bookingRepository.findById(anyInt()))
-                .thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any()))
-                .thenReturn(expectedBooking);
+                .thenReturn(Optional.of(expectedBooking));
 
         Booking bookingUpdated = bookingService.changeStatus(1, booking.getId(), false);
 
         assertEquals(expectedBooking, bookingUpdated);
+        verify(userRepository, never()).findById(anyInt());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
     void testGetById_whenUserNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
+        when(userRepository.findSnapshotById(anyInt()))
                 .thenReturn(Optional.empty());
 
         UserNotFoundException thrown = assertThrows(
@@ -288,9 +512,9 @@ class BookingServiceImplTest {
 
     @Test
     void testGetById_whenBookingNotFound_thenThrowBookingNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findById(anyInt()))
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(bookingRepository.findResponse(anyInt(), anyInt()))
                 .thenReturn(Optional.empty());
 
         BookingNotFoundException thrown = assertThrows(
@@ -303,10 +527,12 @@ class BookingServiceImplTest {
 
     @Test
     void testGetById_whenUserIsNotOwner_thenThrowBookingNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findById(anyInt()))
-                .thenReturn(Optional.of(booking));
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(bookingRepository.findResponse(1, 1))
+                .thenReturn(Optional.of(BookingMapper.toBookingResponseDto(booking)));
+        when(bookingRepository.findResponse(1, 2))
+                .thenReturn(Optional.empty());
 
         BookingNotFoundException thrown = assertThrows(
                 BookingNotFoundException.class,
@@ -318,24 +544,26 @@ class BookingServiceImplTest {
 
     @Test
     void testGetById_whenAllCorrect_thenReturnBooking() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findById(anyInt()))
-                .thenReturn(Optional.of(booking));
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(bookingRepository.findResponse(1, 1))
+                .thenReturn(Optional.of(BookingMapper.toBookingResponseDto(booking)));
 
-        Booking gettingBooking = bookingService.getById(1, 1);
+        BookingResponseDto gettingBooking = bookingService.getById(1, 1);
 
-        assertEquals(booking, gettingBooking);
+        assertEquals(BookingMapper.toBookingResponseDto(booking), gettingBooking);
     }
 
     @Test
     void testGetAll_whenUserIsNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
+        when(userRepository.findSnapshotById(anyInt()))
                 .thenReturn(Optional.empty());
+        when(bookingRepository.findAllByBookerIdOrderByIdDesc(anyInt(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
 
         UserNotFoundException thrown = assertThrows(
                 UserNotFoundException.class,
-                () -> bookingService.getAll(1, BookingStatus.APPROVED, 0, 10)
+                () -> bookingService.getAll(1, BookingStatus.ALL, 0, 10)
         );
 
         assertTrue(thrown.getMessage().contains("Пользователь с id=1 не найден"));
@@ -344,15 +572,15 @@ class BookingServiceImplTest {
     @Test
     void testGetAll_whenStateIsWaiting_thenReturnBooking() {
         booking.setStatus(BookingStatus.WAITING);
-        List<Booking> itemList = new ArrayList<>();
-        itemList.add(booking);
-        Page<Booking> page = new PageImpl<>(itemList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        List<BookingResponseDto> itemList = new ArrayList<>();
+        itemList.add(BookingMapper.toBookingResponseDto(booking));
+        Page<BookingResponseDto> page = new PageImpl<>(itemList);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findAllByBookerIdAndStatusIs(anyInt(), any(), any(Pageable.class)))
                 .thenReturn(page);
 
-        Collection<Booking> bookingResult = bookingService.getAll(1, BookingStatus.WAITING, 0, 10);
+        Collection<BookingResponseDto> bookingResult = bookingService.getAll(1, BookingStatus.WAITING, 0, 10);
 
         assertEquals(itemList, bookingResult);
     }
@@ -360,15 +588,15 @@ class BookingServiceImplTest {
     @Test
     void testGetAll_whenStateIsReject_thenReturnBooking() {
         booking.setStatus(BookingStatus.REJECTED);
-        List<Booking> itemList = new ArrayList<>();
-        itemList.add(booking);
-        Page<Booking> page = new PageImpl<>(itemList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        List<BookingResponseDto> itemList = new ArrayList<>();
+        itemList.add(BookingMapper.toBookingResponseDto(booking));
+        Page<BookingResponseDto> page = new PageImpl<>(itemList);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findAllByBookerIdAndStatusIs(anyInt(), any(), any(Pageable.class)))
                 .thenReturn(page);
 
-        Collection<Booking> bookingResult = bookingService.getAll(1, BookingStatus.REJECTED, 0, 10);
+        Collection<BookingResponseDto> bookingResult = bookingService.getAll(1, BookingStatus.REJECTED, 0, 10);
 
         assertEquals(itemList, bookingResult);
     }
@@ -376,15 +604,15 @@ class BookingServiceImplTest {
     @Test
     void testGetAll_whenStateIsAll_thenReturnBooking() {
         booking.setStatus(BookingStatus.REJECTED);
-        List<Booking> itemList = new ArrayList<>();
-        itemList.add(booking);
-        Page<Booking> page = new PageImpl<>(itemList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        List<BookingResponseDto> itemList = new ArrayList<>();
+        itemList.add(BookingMapper.toBookingResponseDto(booking));
+        Page<BookingResponseDto> page = new PageImpl<>(itemList);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findAllByBookerIdOrderByIdDesc(anyInt(), any(Pageable.class)))
                 .thenReturn(page);
 
-        Collection<Booking> bookingResult = bookingService.getAll(1, BookingStatus.ALL, 0, 10);
+        Collection<BookingResponseDto> bookingResult = bookingService.getAll(1, BookingStatus.ALL, 0, 10);
 
         assertEquals(itemList, bookingResult);
     }
@@ -392,15 +620,15 @@ class BookingServiceImplTest {
     @Test
     void testGetAll_whenStateIsCurrent_thenReturnBooking() {
         booking.setStatus(BookingStatus.REJECTED);
-        List<Booking> itemList = new ArrayList<>();
-        itemList.add(booking);
-        Page<Booking> page = new PageImpl<>(itemList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        List<BookingResponseDto> itemList = new ArrayList<>();
+        itemList.add(BookingMapper.toBookingResponseDto(booking));
+        Page<BookingResponseDto> page = new PageImpl<>(itemList);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(anyInt(), any(), any(), any(Pageable.class)))
                 .thenReturn(page);
 
-        Collection<Booking> bookingResult = bookingService.getAll(1, BookingStatus.CURRENT, 0, 10);
+        Collection<BookingResponseDto> bookingResult = bookingService.getAll(1, BookingStatus.CURRENT, 0, 10);
 
         assertEquals(itemList, bookingResult);
     }
@@ -408,15 +636,15 @@ class BookingServiceImplTest {
     @Test
     void testGetAll_whenStateIsPast_thenReturnBooking() {
         booking.setStatus(BookingStatus.REJECTED);
-        List<Booking> itemList = new ArrayList<>();
-        itemList.add(booking);
-        Page<Booking> page = new PageImpl<>(itemList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        List<BookingResponseDto> itemList = new ArrayList<>();
+        itemList.add(BookingMapper.toBookingResponseDto(booking));
+        Page<BookingResponseDto> page = new PageImpl<>(itemList);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findAllByBookerIdAndEndBeforeOrderByIdDesc(anyInt(), any(), any(Pageable.class)))
                 .thenReturn(page);
 
-        Collection<Booking> bookingResult = bookingService.getAll(1, BookingStatus.PAST, 0, 10);
+        Collection<BookingResponseDto> bookingResult = bookingService.getAll(1, BookingStatus.PAST, 0, 10);
 
         assertEquals(itemList, bookingResult);
     }
@@ -424,11 +652,11 @@ class BookingServiceImplTest {
     @Test
     void testGetAll_whenStateIsFuture_thenReturnBooking() {
         booking.setStatus(BookingStatus.REJECTED);
-        List<Booking> itemList = new ArrayList<>();
-        itemList.add(booking);
-        Page<Booking> page = new PageImpl<>(itemList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        List<BookingResponseDto> itemList = new ArrayList<>();
+        itemList.add(BookingMapper.toBookingResponseDto(booking));
+        Page<BookingResponseDto> page = new PageImpl<>(itemList);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findAllByBookerIdAndStartAfterOrderByIdDesc(anyInt(), any(), any(Pageable.class)))
                 .thenReturn(page);
 
@@ -442,12 +670,14 @@ class BookingServiceImplTest {
 
     @Test
     void testGetAllByOwner_whenUserIsNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
+        when(userRepository.findSnapshotById(anyInt()))
                 .thenReturn(Optional.empty());
+        when(bookingRepository.findAllByItemOwnerIdOrderByIdDesc(anyInt(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
 
         UserNotFoundException thrown = assertThrows(
                 UserNotFoundException.class,
-                () -> bookingService.getAllByOwner(1, BookingStatus.APPROVED, 0, 10)
+                () -> bookingService.getAllByOwner(1, BookingStatus.ALL, 0, 10)
         );
 
         assertTrue(thrown.getMessage().contains("Пользователь с id=1 не найден"));
@@ -456,11 +686,11 @@ class BookingServiceImplTest {
     @Test
     void testGetAllByOwner() {
         booking.setStatus(BookingStatus.WAITING);
-        List<Booking> itemList = new ArrayList<>();
-        itemList.add(booking);
-        Page<Booking> page = new PageImpl<>(itemList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        List<BookingResponseDto> itemList = new ArrayList<>();
+        itemList.add(BookingMapper.toBookingResponseDto(booking));
+        Page<BookingResponseDto> page = new PageImpl<>(itemList);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(bookingRepository.findAllByItemOwnerIdAndStatusIs(anyInt(), any(), any(Pageable.class)))
                 .thenReturn(page);
         when(bookingRepository.findAllByItemOwnerIdOrderByIdDesc(anyInt(), any(Pageable.class)))
@@ -472,12 +702,12 @@ class BookingServiceImplTest {
         when(bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByIdDesc(anyInt(), any(), any(Pageable.class)))
                 .thenReturn(page);
 
-        Collection<Booking> bookingResultWaiting = bookingService.getAllByOwner(1, BookingStatus.WAITING, 0, 10);
-        Collection<Booking> bookingResultReject = bookingService.getAllByOwner(1, BookingStatus.REJECTED, 0, 10);
-        Collection<Booking> bookingResultAll = bookingService.getAllByOwner(1, BookingStatus.ALL, 0, 10);
-        Collection<Booking> bookingResultCurrent = bookingService.getAllByOwner(1, BookingStatus.CURRENT, 0, 10);
-        Collection<Booking> bookingResultPast = bookingService.getAllByOwner(1, BookingStatus.PAST, 0, 10);
-        Collection<Booking> bookingResultFuture = bookingService.getAllByOwner(1, BookingStatus.FUTURE, 0, 10);
+        Collection<BookingResponseDto> bookingResultWaiting = bookingService.getAllByOwner(1, BookingStatus.WAITING, 0, 10);
+        Collection<BookingResponseDto> bookingResultReject = bookingService.getAllByOwner(1, BookingStatus.REJECTED, 0, 10);
+        Collection<BookingResponseDto> bookingResultAll = bookingService.getAllByOwner(1, BookingStatus.ALL, 0, 10);
+        Collection<BookingResponseDto> bookingResultCurrent = bookingService.getAllByOwner(1, BookingStatus.CURRENT, 0, 10);
+        Collection<BookingResponseDto> bookingResultPast = bookingService.getAllByOwner(1, BookingStatus.PAST, 0, 10);
+        Collection<BookingResponseDto> bookingResultFuture = bookingService.getAllByOwner(1, BookingStatus.FUTURE, 0, 10);
 
         BookingBadRequestException exception = assertThrows(
                 BookingBadRequestException.class,
@@ -493,4 +723,38 @@ class BookingServiceImplTest {
         assertEquals(itemList, bookingResultPast);
         assertEquals(itemList, bookingResultFuture);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAll_whenFirstCursorPage_thenReadFromTopWithLimit() {
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(bookingRepository.findAllByBookerIdAndIdLessThanOrderByIdDesc(1, Integer.MAX_VALUE, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(BookingMapper.toBookingResponseDto(booking)), PageRequest.of(0, 10), true));
+
+        Slice<BookingResponseDto> bookingResult = bookingService.getAll(1, BookingStatus.ALL, PageCursor.first(), 10);
+
+        assertEquals(List.of(BookingMapper.toBookingResponseDto(booking)), bookingResult.getContent());
+        assertTrue(bookingResult.hasNext());
+    }
+
+    @Test
+    void testGetAllByOwner_whenCursorPassed_thenReadBeforeLastId() {
+        booking.setStatus(BookingStatus.WAITING);
+        when(userRepository.findSnapshotById(anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(bookingRepository.findAllByItemOwnerIdAndStatusIsAndIdLessThanOrderByIdDesc(
+                1, BookingStatus.WAITING, 7, PageRequest.of(0, 10)))
+                .thenReturn(new SliceImpl<>(List.of(BookingMapper.toBookingResponseDto(booking))));
+
+        Slice<BookingResponseDto> bookingResult = bookingService.getAllByOwner(1, BookingStatus.WAITING,
+                PageCursor.after(7), 10);
+
+        assertEquals(List.of(BookingMapper.toBookingResponseDto(booking)), bookingResult.getContent());
+        assertThrows(BookingBadRequestException.class,
+                () -> bookingService.getAllByOwner(1, BookingStatus.UNKNOWN, PageCursor.after(7), 10));
+    }
+
+    private static UserSnapshot snapshotOf(User user) {
+        return new UserSnapshot(user.getId(), user.getName(), user.getEmail());
+    }
+}
@@ -3,6 +3,10 @@ package ru.practicum.shareit.errorhandling;
 import org.hibernate.validator.internal.engine.path.PathImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.MethodParameter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -10,20 +14,24 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import ru.practicum.shareit.booking.exception.BookingBadRequestException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingStatusConflictException;
 import ru.practicum.shareit.item.exception.ItemNotAvailableException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.WrongOwnerException;
 import ru.practicum.shareit.request.exception.RequestNotFoundException;
 import ru.practicum.shareit.user.exception.UserAlreadyExistsException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Path;
 import javax.validation.metadata.ConstraintDescriptor;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -40,6 +48,14 @@ class ErrorHandlerTest {
         assertEquals("User not found", response.getError());
     }
 
+    @Test
+    void handleBookingStatusConflictException() {
+        BookingStatusConflictException exception = new BookingStatusConflictException("Status changed");
+        ErrorHandler errorHandler = new ErrorHandler();
+        ErrorResponse response = errorHandler.handleBookingStatusConflictException(exception);
+        assertEquals("Status changed", response.getError());
+    }
+
     @Test
     void handleUserAlreadyExistException() {
         UserAlreadyExistsException exception = new UserAlreadyExistsException("User is exist");
@@ -56,6 +72,14 @@ class ErrorHandlerTest {
         assertEquals("Wrong owner", response.getError());
     }
 
+    @Test
+    void handleObjectOptimisticLockingFailureException() {
+        ObjectOptimisticLockingFailureException exception = new ObjectOptimisticLockingFailureException(User.class, 1);
+        ErrorHandler errorHandler = new ErrorHandler();
+        ErrorResponse response = errorHandler.handleObjectOptimisticLockingFailureException(exception);
+        assertEquals("Запись была изменена другим запросом, повторите попытку", response.getError());
+    }
+
     @Test
     void handleItemNotFoundException() {
         ItemNotFoundException exception = new ItemNotFoundException("Item not found");
@@ -96,6 +120,52 @@ class ErrorHandlerTest {
         assertEquals("Booking bad request", response.getError());
     }
 
+    @Test
+    void handleDataIntegrityViolationException_whenUserReferenceMissing_thenNotFound() {
+        DataIntegrityViolationException exception = foreignKeyViolation("23506",
+                "Referential integrity constraint violation", "BOOKINGS_USERS_USER_ID_FK");
+        ErrorHandler errorHandler = new ErrorHandler();
+        ResponseEntity<ErrorResponse> response = errorHandler.handleDataIntegrityViolationException(exception);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Пользователь не найден", response.getBody().getError());
+    }
+
+    @Test
+    void handleDataIntegrityViolationException_whenDefaultLocaleTurkish_thenNotFound() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            DataIntegrityViolationException exception = foreignKeyViolation("23506",
+                    "Referential integrity constraint violation", "BOOKINGS_USERS_USER_ID_FK");
+            ErrorHandler errorHandler = new ErrorHandler();
+            ResponseEntity<ErrorResponse> response = errorHandler.handleDataIntegrityViolationException(exception);
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+            assertEquals("Пользователь не найден", response.getBody().getError());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void handleDataIntegrityViolationException_whenPostgresReportsMissingRequest_thenNotFound() {
+        DataIntegrityViolationException exception = foreignKeyViolation("23503",
+                "Key (request_id)=(99) is not present in table \"requests\".", "items_requests_request_id_fk");
+        ErrorHandler errorHandler = new ErrorHandler();
+        ResponseEntity<ErrorResponse> response = errorHandler.handleDataIntegrityViolationException(exception);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Запрос не найден", response.getBody().getError());
+    }
+
+    @Test
+    void handleDataIntegrityViolationException_whenRowIsStillReferenced_thenConflict() {
+        DataIntegrityViolationException exception = foreignKeyViolation("23503",
+                "Key (id)=(1) is still referenced from table \"items\".", "items_users_user_id_fk");
+        ErrorHandler errorHandler = new ErrorHandler();
+        ResponseEntity<ErrorResponse> response = errorHandler.handleDataIntegrityViolationException(exception);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Нарушено ограничение целостности данных", response.getBody().getError());
+    }
+
     @Test
     void onConstraintValidationException() {
         ErrorHandler errorHandler = new ErrorHandler();
@@ -210,4 +280,11 @@ class ErrorHandlerTest {
             }
         };
     }
-}
\ No newline at end of file
+
+    private static DataIntegrityViolationException foreignKeyViolation(String sqlState, String message,
+                                                                       String constraint) {
+        SQLException sqlException = new SQLException(message, sqlState);
+        return new DataIntegrityViolationException(message,
+                new org.hibernate.exception.ConstraintViolationException(message, sqlException, constraint));
+    }
+}
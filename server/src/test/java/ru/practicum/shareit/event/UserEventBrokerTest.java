@@ -0,0 +1,133 @@
+package ru.practicum.shareit.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.cache.UserSnapshot;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class UserEventBrokerTest {
+
+    UserRepository userRepository;
+    List<Runnable> pendingSends;
+    UserEventBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        when(userRepository.findSnapshotById(1))
+                .thenReturn(Optional.of(new UserSnapshot(1, "Test", "Test@test.test")));
+        pendingSends = new ArrayList<>();
+        broker = new UserEventBroker(new UserCache(userRepository), pendingSends::add, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testSubscribe_whenUserNotFound_thenThrowUserNotFoundException() {
+        when(userRepository.findSnapshotById(99))
+                .thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> broker.subscribe(99));
+        assertFalse(broker.hasSubscribers());
+    }
+
+    @Test
+    void testPublish_whenSubscribed_thenStreamEventToSubscriber() throws Exception {
+        broker = new UserEventBroker(new UserCache(userRepository), Runnable::run, Duration.ofMinutes(1));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new EventController(broker)).build();
+
+        MvcResult result = mvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        broker.publish(1, UserEvent.bookingStatusChanged(5, 7, BookingStatus.APPROVED));
+        broker.publish(2, UserEvent.bookingCreated(6, 7));
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(broker.hasSubscribers());
+        assertTrue(body.contains("event:BOOKING_STATUS_CHANGED"));
+        assertTrue(body.contains("\"bookingId\":5"));
+        assertTrue(body.contains("\"status\":\"APPROVED\""));
+        assertFalse(body.contains("BOOKING_CREATED"));
+    }
+
+    @Test
+    void testPublish_whenSubscriberFallsBehind_thenDropSubscription() {
+        broker.subscribe(1);
+
+        for (int i = 0; i < UserEventBroker.QUEUE_CAPACITY; i++) {
+            broker.publish(1, UserEvent.bookingCreated(i, 7));
+        }
+        assertTrue(broker.hasSubscribers());
+        assertEquals(1, pendingSends.size());
+
+        broker.publish(1, UserEvent.bookingCreated(UserEventBroker.QUEUE_CAPACITY, 7));
+
+        assertFalse(broker.hasSubscribers());
+    }
+
+    @Test
+    void testCheckSubscriptions_whenSendTakesTooLong_thenDropSubscription() {
+        broker = new UserEventBroker(new UserCache(userRepository), pendingSends::add, Duration.ZERO);
+        broker.subscribe(1);
+        broker.publish(1, UserEvent.bookingCreated(5, 7));
+
+        broker.checkSubscriptions();
+
+        assertFalse(broker.hasSubscribers());
+    }
+
+    @Test
+    void testCheckSubscriptions_whenIdle_thenSendHeartbeat() throws Exception {
+        broker = new UserEventBroker(new UserCache(userRepository), Runnable::run, Duration.ofMinutes(1));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new EventController(broker)).build();
+        MvcResult result = mvc.perform(get("/events")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        broker.checkSubscriptions();
+
+        assertTrue(result.getResponse().getContentAsString().contains(":heartbeat"));
+        assertTrue(broker.hasSubscribers());
+    }
+
+    @Test
+    void testCheckSubscriptions_whenSendWasRejected_thenRetry() {
+        List<Runnable> accepted = new ArrayList<>();
+        boolean[] reject = {true};
+        broker = new UserEventBroker(new UserCache(userRepository), task -> {
+            if (reject[0]) {
+                throw new RejectedExecutionException();
+            }
+            accepted.add(task);
+        }, Duration.ofMinutes(1));
+        broker.subscribe(1);
+        broker.publish(1, UserEvent.bookingCreated(5, 7));
+        reject[0] = false;
+
+        broker.checkSubscriptions();
+
+        assertEquals(1, accepted.size());
+        assertTrue(broker.hasSubscribers());
+    }
+}
@@ -11,6 +11,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
@@ -274,6 +275,47 @@ class ItemControllerTest {
         assertEquals(mapper.writeValueAsString(List.of(ItemMapper.toItemDto(item))), result);
     }
 
+    @Test
+    public void testGetCalendar_thenReturnMergedIntervals() throws Exception {
+        mapper.registerModule(new JavaTimeModule());
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        ItemCalendar calendar = new ItemCalendar(
+                List.of(new ItemCalendar.Interval(from, from.plusHours(2))), List.of());
+
+        when(itemService.getCalendar(1, from, to)).thenReturn(calendar);
+
+        String result = mvc.perform(get("/items/1/calendar")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-02T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.waiting").isEmpty())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(calendar), result);
+    }
+
+    @Test
+    public void testSearchAvailableItems_thenPassIntervalToService() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime end = start.plusDays(1);
+
+        when(itemService.searchAvailableItems("item", start, end, 0, 5)).thenReturn(List.of(item));
+
+        String result = mvc.perform(get("/items/available")
+                        .param("text", "Item")
+                        .param("start", "2030-01-01T10:00:00")
+                        .param("end", "2030-01-02T10:00:00"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(List.of(ItemMapper.toItemDto(item))), result);
+    }
+
     @Test
     public void testAddComment() throws Exception {
         mapper.registerModule(new JavaTimeModule());
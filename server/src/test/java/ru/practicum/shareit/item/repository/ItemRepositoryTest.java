@@ -5,12 +5,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemDocument;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 class ItemRepositoryTest {
@@ -45,14 +55,14 @@ class ItemRepositoryTest {
 
     @Test
     void testSearch_butZeroFound() {
-        Page<Item> resultPage = itemRepository.search("Zero", pageable);
+        Slice<Item> resultPage = itemRepository.search("Zero", pageable);
 
         assertEquals(0, resultPage.getContent().size());
     }
 
     @Test
     void testSearch_oneFoundByName() {
-        Page<Item> resultPage = itemRepository.search("Item", pageable);
+        Slice<Item> resultPage = itemRepository.search("Item", pageable);
 
         assertEquals(1, resultPage.getContent().size());
         assertEquals(item, resultPage.getContent().get(0));
@@ -60,7 +70,7 @@ class ItemRepositoryTest {
 
     @Test
     void testSearch_oneFoundByDescription() {
-        Page<Item> resultPage = itemRepository.search("word", pageable);
+        Slice<Item> resultPage = itemRepository.search("word", pageable);
 
         assertEquals(1, resultPage.getContent().size());
         assertEquals(item, resultPage.getContent().get(0));
@@ -76,10 +86,130 @@ class ItemRepositoryTest {
                 .build();
         em.persist(item2);
 
-        Page<Item> resultPage = itemRepository.search("word", pageable);
+        Slice<Item> resultPage = itemRepository.search("word", pageable);
 
         assertEquals(2, resultPage.getContent().size());
         assertEquals(item, resultPage.getContent().get(0));
         assertEquals(item2, resultPage.getContent().get(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearch_pagesInIdOrder() {
+        Item item2 = Item.builder()
+                .owner(user)
+                .name("Item name")
+                .available(true)
+                .description("Desc2 word")
+                .build();
+        Item item3 = Item.builder()
+                .owner(user)
+                .name("Item name")
+                .available(true)
+                .description("Desc3 word")
+                .build();
+        em.persist(item2);
+        em.persist(item3);
+
+        Slice<Item> secondPage = itemRepository.search("word", PageRequest.of(1, 2));
+
+        assertEquals(List.of(item3), secondPage.getContent());
+    }
+
+    @Test
+    void testSearch_unavailableItemNotFoundByName() {
+        Item unavailable = Item.builder()
+                .owner(user)
+                .name("Unavailable thing")
+                .available(false)
+                .description("Hidden")
+                .build();
+        em.persist(unavailable);
+
+        Slice<Item> resultPage = itemRepository.search("Unavailable", pageable);
+
+        assertEquals(0, resultPage.getContent().size());
+    }
+
+    @Test
+    void testSearchAvailable_approvedOverlapExcluded() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Item item2 = Item.builder()
+                .owner(user)
+                .name("Item name")
+                .available(true)
+                .description("Desc2 word")
+                .build();
+        em.persist(item2);
+        em.persist(Booking.builder()
+                .item(item)
+                .booker(user)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.APPROVED)
+                .build());
+        em.persist(Booking.builder()
+                .item(item2)
+                .booker(user)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(BookingStatus.WAITING)
+                .build());
+
+        Slice<Item> overlapping = itemRepository.searchAvailable("word", BookingStatus.APPROVED,
+                start.plusHours(1), start.plusHours(2), pageable);
+        Slice<Item> adjacent = itemRepository.searchAvailable("word", BookingStatus.APPROVED,
+                start.plusDays(1), start.plusDays(2), pageable);
+
+        assertEquals(List.of(item2), overlapping.getContent());
+        assertEquals(List.of(item, item2), adjacent.getContent());
+    }
+
+    @Test
+    void testFindAllDocuments() {
+        List<ItemDocument> documents = itemRepository.findAllDocuments();
+
+        assertEquals(List.of(new ItemDocument(item.getId(), "Item name", "Desc word", true, null,
+                user.getId())), documents);
+    }
+
+    @Test
+    void testFindAllByRequestIdInAndByRequestorId() {
+        User requestor = em.persist(User.builder().name("Requestor").email("requestor@test.test").build());
+        User other = em.persist(User.builder().name("Other").email("other@test.test").build());
+        ItemRequest first = em.persist(ItemRequest.builder()
+                .requestor(requestor).description("first").created(LocalDateTime.now()).build());
+        ItemRequest second = em.persist(ItemRequest.builder()
+                .requestor(requestor).description("second").created(LocalDateTime.now()).build());
+        ItemRequest foreign = em.persist(ItemRequest.builder()
+                .requestor(other).description("foreign").created(LocalDateTime.now()).build());
+        Item firstAnswer = em.persist(Item.builder().owner(user).name("first").description("first")
+                .available(true).request(first).build());
+        Item secondAnswer = em.persist(Item.builder().owner(user).name("second").description("second")
+                .available(true).request(second).build());
+        em.persist(Item.builder().owner(user).name("foreign").description("foreign")
+                .available(true).request(foreign).build());
+
+        assertEquals(Set.of(firstAnswer, secondAnswer),
+                Set.copyOf(itemRepository.findAllByRequestIdIn(List.of(first.getId(), second.getId()))));
+        assertEquals(Set.of(firstAnswer, secondAnswer),
+                Set.copyOf(itemRepository.findAllByRequestRequestorId(requestor.getId())));
+    }
+
+    @Test
+    void testSave_whenItemChangedAfterRead_thenThrowObjectOptimisticLockingFailureException() {
+        em.flush();
+        Item stale = Item.builder()
+                .id(item.getId())
+                .owner(user)
+                .name("Stale name")
+                .available(true)
+                .description("Desc word")
+                .version(item.getVersion())
+                .build();
+        itemRepository.findById(item.getId()).orElseThrow().setName("Fresh name");
+        em.flush();
+        em.clear();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> itemRepository.saveAndFlush(stale));
+    }
+}
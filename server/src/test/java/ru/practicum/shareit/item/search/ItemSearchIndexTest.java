@@ -0,0 +1,174 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    ItemRepository itemRepository;
+    ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = Mockito.mock(ItemRepository.class);
+        index = new ItemSearchIndex(itemRepository);
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1, "Дрель аккумуляторная", "Мощная, с двумя батареями", true, null, null),
+                new ItemDocument(2, "Палатка", "Двухместная палатка для походов", true, 7, null),
+                new ItemDocument(3, "Дрель ударная", "Сетевая", false, null, null)
+        ));
+        index.rebuild();
+    }
+
+    @Test
+    void testSearch_whenPrefixOfWord_thenFound() {
+        assertEquals(List.of(1), ids(index.search("дрел", 0, 10)));
+    }
+
+    @Test
+    void testSearch_whenMatchesDescription_thenFoundWithRequestId() {
+        List<Item> result = index.search("ПОХОД", 0, 10);
+
+        assertEquals(List.of(2), ids(result));
+        assertEquals(7, result.get(0).getRequest().getId());
+    }
+
+    @Test
+    void testSearch_whenSubstringInsideWord_thenFound() {
+        assertEquals(List.of(1), ids(index.search("умулят", 0, 10)));
+    }
+
+    @Test
+    void testSearch_whenPhraseSpansWords_thenMatchedAsSubstring() {
+        assertEquals(List.of(1), ids(index.search("ль акк", 0, 10)));
+        assertTrue(index.search("дрель мощная", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_whenTrigramsMatchButSubstringDoesNot_thenNotFound() {
+        index.index(Item.builder().id(4).name("абвг где").description("-").available(true).build());
+
+        assertTrue(index.search("абвгде", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_whenQueryShorterThanTrigram_thenFound() {
+        index.index(Item.builder().id(4).name("Ёж").description("ф").available(true).build());
+
+        assertEquals(List.of(4), ids(index.search("ж", 0, 10)));
+        assertEquals(List.of(4), ids(index.search("ёж", 0, 10)));
+        assertEquals(List.of(4), ids(index.search("ф", 0, 10)));
+        assertEquals(List.of(1, 2), ids(index.search("ат", 0, 10)));
+    }
+
+    @Test
+    void testSearch_whenIndexNotBuilt_thenSearchInDatabase() {
+        ItemSearchIndex notBuilt = new ItemSearchIndex(itemRepository);
+        Item item = Item.builder().id(5).name("Дрель").available(true).build();
+        when(itemRepository.search("дрел", PageRequest.of(0, 10))).thenReturn(new SliceImpl<>(List.of(item)));
+
+        assertEquals(List.of(item), notBuilt.search("Дрел", 0, 10));
+    }
+
+    @Test
+    void testSearch_whenFiltered_thenPageCountsOnlyAcceptedItems() {
+        index.index(Item.builder().id(4).name("Палатка туристическая").description("Трёхместная").available(true)
+                .build());
+
+        assertEquals(List.of(4), ids(index.search("палатк", 0, 1, itemId -> itemId != 2)));
+        assertTrue(index.search("палатк", 1, 1, itemId -> itemId != 2).isEmpty());
+    }
+
+    @Test
+    void testSearch_whenItemUnavailable_thenNotFound() {
+        assertTrue(index.search("ударная", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_whenPaged_thenReturnRequestedPage() {
+        index.index(Item.builder().id(4).name("Палатка туристическая").description("Трёхместная").available(true)
+                .build());
+
+        assertEquals(List.of(2), ids(index.search("палатка", 0, 1)));
+        assertEquals(List.of(4), ids(index.search("палатка", 1, 1)));
+    }
+
+    @Test
+    void testSearch_whenCursorPassed_thenReturnItemsAfterLastId() {
+        index.index(Item.builder().id(4).name("Палатка туристическая").description("Трёхместная").available(true)
+                .build());
+        index.index(Item.builder().id(5).name("Тент").description("Для палатки").available(true).build());
+
+        Slice<Item> firstPage = index.search("палатк", PageCursor.first(), 2);
+        Slice<Item> lastPage = index.search("палатк", PageCursor.after(4), 2);
+
+        assertEquals(List.of(2, 4), ids(firstPage.getContent()));
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(4, 5), ids(index.search("палатк", PageCursor.after(2), 2).getContent()));
+        assertFalse(index.search("палатк", PageCursor.after(2), 2).hasNext());
+        assertEquals(List.of(5), ids(lastPage.getContent()));
+        assertFalse(lastPage.hasNext());
+        assertTrue(index.search("палатк", PageCursor.after(5), 2).isEmpty());
+    }
+
+    @Test
+    void testIndex_whenItemUpdated_thenOldWordsForgotten() {
+        index.index(Item.builder().id(1).name("Шуруповёрт").description("Мощный").available(true).build());
+
+        assertTrue(index.search("дрель", 0, 10).isEmpty());
+        assertEquals(List.of(1), ids(index.search("шуруповёрт", 0, 10)));
+    }
+
+    @Test
+    void testRebuild_whenItemUpdatedWhileReadingDatabase_thenUpdateKept() {
+        when(itemRepository.findAllDocuments()).thenAnswer(invocation -> {
+            index.index(Item.builder().id(2).name("Шатёр").description("Большой").available(true).build());
+            return List.of(new ItemDocument(2, "Палатка", "Двухместная палатка для походов", true, 7, null));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.search("палатка", 0, 10).isEmpty());
+        assertEquals(List.of(2), ids(index.search("шатёр", 0, 10)));
+    }
+
+    @Test
+    void testSearch_whenDefaultLocaleTurkish_thenCaseFoldedLocaleIndependently() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            index.index(Item.builder().id(4).name("DRILL").description("IMPACT").available(true).build());
+
+            assertEquals(List.of(4), ids(index.search("DRILL", 0, 10)));
+            assertEquals(List.of(4), ids(index.search("impact", 0, 10)));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void testRemove_thenNotFound() {
+        index.remove(2);
+
+        assertTrue(index.search("палатка", 0, 10).isEmpty());
+    }
+
+    private static List<Integer> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
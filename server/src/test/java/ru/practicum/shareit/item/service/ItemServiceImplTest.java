@@ -3,13 +3,22 @@ package ru.practicum.shareit.item.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.booking.availability.BookingInterval;
+import ru.practicum.shareit.booking.availability.BookingIntervalIndex;
+import ru.practicum.shareit.booking.availability.ItemCalendar;
+import ru.practicum.shareit.booking.availability.ItemCalendarCache;
+import ru.practicum.shareit.booking.dto.BookingShortDto;
 import ru.practicum.shareit.booking.exception.BookingBadRequestException;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.event.UserEvent;
+import ru.practicum.shareit.event.UserEventBroker;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.WrongOwnerException;
@@ -18,8 +27,11 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.request.exception.RequestNotFoundException;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.cache.UserSnapshot;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -29,6 +41,8 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemServiceImplTest {
@@ -38,6 +52,10 @@ class ItemServiceImplTest {
     BookingRepository bookingRepository;
     CommentRepository commentRepository;
     ItemRequestRepository itemRequestRepository;
+    ItemSearchIndex itemSearchIndex;
+    BookingIntervalIndex bookingIntervalIndex;
+    ItemCalendarCache itemCalendarCache;
+    UserEventBroker userEvents;
     Item item;
     ItemDto itemDto;
     User user;
@@ -49,12 +67,24 @@ class ItemServiceImplTest {
         bookingRepository = Mockito.mock(BookingRepository.class);
         commentRepository = Mockito.mock(CommentRepository.class);
         itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        userEvents = Mockito.mock(UserEventBroker.class);
+        itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemSearchIndex.rebuild();
+        Mockito.clearInvocations(itemRepository);
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+        bookingIntervalIndex.rebuild();
+        itemCalendarCache = new ItemCalendarCache(bookingRepository, itemRepository);
         itemService = new ItemServiceImpl(
                 itemRepository,
                 userRepository,
                 commentRepository,
                 bookingRepository,
-                itemRequestRepository
+                itemRequestRepository,
+                itemSearchIndex,
+                bookingIntervalIndex,
+                itemCalendarCache,
+                new UserCache(userRepository),
+                userEvents
         );
         user = User.builder()
                 .id(1)
@@ -77,8 +107,8 @@ class ItemServiceImplTest {
 
     @Test
     void testAddItem_whenAllCorrect_thenAddItem() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
 
         when(itemRepository.save(Mockito.any(Item.class)))
                 .thenReturn(item);
@@ -95,35 +125,69 @@ class ItemServiceImplTest {
     }
 
     @Test
-    void testAddItem_whenRequestNotFound_thenThrowRequestNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+    void testAddItem_whenRequestorSubscribed_thenPublishRequestAnswered() {
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
+        when(itemRequestRepository.getReferenceById(7))
+                .thenReturn(ItemRequest.builder().id(7).build());
+        when(itemRepository.save(Mockito.any(Item.class)))
+                .thenReturn(item);
+        when(userEvents.hasSubscribers())
+                .thenReturn(true);
+        when(itemRequestRepository.findRequestorId(7))
+                .thenReturn(Optional.of(2));
+        ItemDto id = ItemMapper.toItemDto(item);
+        id.setRequestId(7);
 
-        when(itemRequestRepository.findById(anyInt()))
-                .thenReturn(Optional.empty());
+        itemService.addItem(id, user.getId());
+
+        verify(userEvents).publish(2, UserEvent.requestAnswered(7, item.getId()));
+    }
 
+    @Test
+    void testAddItem_whenNobodySubscribed_thenDoNotLookUpRequestor() {
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
+        when(itemRequestRepository.getReferenceById(7))
+                .thenReturn(ItemRequest.builder().id(7).build());
+        when(itemRepository.save(Mockito.any(Item.class)))
+                .thenReturn(item);
         ItemDto id = ItemMapper.toItemDto(item);
-        id.setRequestId(99);
+        id.setRequestId(7);
 
-        RequestNotFoundException thrown = assertThrows(
-                RequestNotFoundException.class,
-                () -> itemService.addItem(id, user.getId())
-        );
+        itemService.addItem(id, user.getId());
 
-        assertTrue(thrown.getMessage().contains("Запрос не найден"));
+        verify(itemRequestRepository, never()).findRequestorId(anyInt());
+        verify(userEvents, never()).publish(anyInt(), any());
     }
 
     @Test
-    void testAddItem_whenUserNotFound_thenThrowUserNotFoundException() {
-        ItemDto itemDto = ItemMapper.toItemDto(item);
+    void testAddItem_whenRequestNotFound_thenForeignKeyViolationIsPropagated() {
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
+        when(itemRequestRepository.getReferenceById(anyInt()))
+                .thenReturn(ItemRequest.builder().id(99).build());
+        when(itemRepository.save(Mockito.any(Item.class)))
+                .thenThrow(new DataIntegrityViolationException("items_requests_request_id_fk"));
 
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.empty());
+        ItemDto id = ItemMapper.toItemDto(item);
+        id.setRequestId(99);
 
-        Exception exception = assertThrows(UserNotFoundException.class,
-                () -> itemService.addItem(itemDto, 99));
+        assertThrows(DataIntegrityViolationException.class, () -> itemService.addItem(id, user.getId()));
+        verify(itemRequestRepository, never()).findById(anyInt());
+    }
 
-        assertEquals("Пользователь с id=99 не найден", exception.getMessage());
+    @Test
+    void testAddItem_whenUserNotFound_thenForeignKeyViolationIsPropagated() {
+        ItemDto itemDto = ItemMapper.toItemDto(item);
+
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(User.builder().id(99).build());
+        when(itemRepository.save(Mockito.any(Item.class)))
+                .thenThrow(new DataIntegrityViolationException("items_users_user_id_fk"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> itemService.addItem(itemDto, 99));
+        verify(userRepository, never()).findById(anyInt());
     }
 
     @Test
@@ -152,16 +216,18 @@ class ItemServiceImplTest {
 
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
 
-        when(bookingRepository.findLastBooking(1, 1, LocalDateTime.now(), BookingStatus.APPROVED))
-                .thenReturn(Collections.emptyList());
+        when(bookingRepository.findLastBooking(eq(1), any(), eq(BookingStatus.APPROVED)))
+                .thenReturn(Optional.of(new BookingShortDto(3, 2)));
 
-        when(bookingRepository.findNextBooking(1, 1, LocalDateTime.now(), BookingStatus.APPROVED))
-                .thenReturn(Collections.emptyList());
+        when(bookingRepository.findNextBooking(eq(1), any(), eq(BookingStatus.APPROVED)))
+                .thenReturn(Optional.empty());
 
         ItemDto foundItem = itemService.getItemById(itemDto.getId(), user.getId());
         assertEquals(item.getId(), foundItem.getId());
         assertEquals(item.getName(), foundItem.getName());
         assertEquals(item.getDescription(), foundItem.getDescription());
+        assertEquals(new ItemDto.BookingInfo(3, 2), foundItem.getLastBooking());
+        assertNull(foundItem.getNextBooking());
     }
 
     @Test
@@ -176,7 +242,7 @@ class ItemServiceImplTest {
     @Test
     void testUpdate_whenUserNotFound_thenThrowUserNotFoundException() {
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(userRepository.findSnapshotById(anyInt())).thenReturn(Optional.empty());
         Exception exception = assertThrows(UserNotFoundException.class,
                 () -> itemService.updateItem(item, 99));
 
@@ -185,13 +251,8 @@ class ItemServiceImplTest {
 
     @Test
     void testUpdate_whenUserIsNotOwner_thenThrowWrongOwnerException() {
-        User notOwner = User.builder()
-                .id(99)
-                .email("email")
-                .name("test")
-                .build();
         when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyInt())).thenReturn(Optional.of(notOwner));
+        when(userRepository.findSnapshotById(anyInt())).thenReturn(Optional.of(snapshotOf(user)));
 
         Exception exception = assertThrows(WrongOwnerException.class,
                 () -> itemService.updateItem(item, 99));
@@ -308,14 +369,12 @@ class ItemServiceImplTest {
                 .owner(user)
                 .available(true)
                 .build();
-        List<Item> itemList = new ArrayList<>();
-        itemList.add(item1);
-        Page<Item> page = new PageImpl<>(itemList);
+        itemSearchIndex.index(item1);
 
-        when(itemRepository.search(anyString(), any())).thenReturn(page);
         Collection<Item> result = itemService.searchItems("item", 0, 10);
         assertEquals(1, result.size());
-        assertEquals(page.getContent(), result);
+        assertEquals(ItemMapper.toItemDto(item1), ItemMapper.toItemDto(result.iterator().next()));
+        Mockito.verifyNoInteractions(itemRepository);
     }
 
     @Test
@@ -334,15 +393,116 @@ class ItemServiceImplTest {
                 .owner(user)
                 .available(true)
                 .build();
-        List<Item> itemList = new ArrayList<>();
-        itemList.add(item1);
-        itemList.add(item2);
-        Page<Item> page = new PageImpl<>(itemList);
+        itemSearchIndex.index(item1);
+        itemSearchIndex.index(item2);
 
-        when(itemRepository.search(anyString(), any())).thenReturn(page);
-        Collection<Item> result = itemService.searchItems("item", 0, 10);
+        List<Item> result = new ArrayList<>(itemService.searchItems("item", 0, 10));
         assertEquals(2, result.size());
-        assertEquals(page.getContent(), result);
+        assertEquals(1, result.get(0).getId());
+        assertEquals(2, result.get(1).getId());
+    }
+
+    @Test
+    void testSearchItems_whenItemUpdatedAndDeleted_thenIndexFollows() {
+        when(itemRepository.findById(anyInt())).thenReturn(Optional.of(item));
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        itemService.updateItem(Item.builder().id(1).name("Дрель").build(), user.getId());
+        assertEquals(1, itemService.searchItems("дрел", 0, 10).size());
+
+        itemService.deleteItem(1);
+        assertTrue(itemService.searchItems("дрел", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testSearchAvailableItems_whenItemBooked_thenSkipIt() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Item item2 = Item.builder()
+                .id(2)
+                .name("item")
+                .description("desc")
+                .owner(user)
+                .available(true)
+                .build();
+        itemSearchIndex.index(item);
+        itemSearchIndex.index(item2);
+        when(bookingRepository.findAllIntervals(BookingStatus.APPROVED)).thenReturn(List.of(
+                new BookingInterval(1, 1, start, start.plusDays(1))
+        ));
+        bookingIntervalIndex.rebuild();
+
+        List<Item> booked = new ArrayList<>(
+                itemService.searchAvailableItems("item", start.plusHours(1), start.plusHours(2), 0, 10));
+        assertEquals(1, booked.size());
+        assertEquals(2, booked.get(0).getId());
+
+        Collection<Item> free = itemService.searchAvailableItems("item", start.plusDays(1), start.plusDays(2), 0, 10);
+        assertEquals(2, free.size());
+        Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verify(bookingRepository, Mockito.never())
+                .existsByItemIdAndStatusIsAndStartBeforeAndEndAfter(anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testSearchAvailableItems_whenIndexNotReady_thenSearchInDatabase() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, commentRepository, bookingRepository,
+                itemRequestRepository, itemSearchIndex, bookingIntervalIndex, itemCalendarCache,
+                new UserCache(userRepository), userEvents);
+        when(itemRepository.searchAvailable("item", BookingStatus.APPROVED, start, start.plusHours(1),
+                PageRequest.of(0, 10))).thenReturn(new SliceImpl<>(List.of(item)));
+
+        Collection<Item> result = itemService.searchAvailableItems("item", start, start.plusHours(1), 0, 10);
+
+        assertEquals(List.of(item), result);
+    }
+
+    @Test
+    void testSearchAvailableItems_whenEndNotAfterStart_thenThrowBookingBadRequestException() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+        assertThrows(BookingBadRequestException.class,
+                () -> itemService.searchAvailableItems("item", start, start, 0, 10));
+    }
+
+    @Test
+    void testGetCalendar_whenLoadedOnce_thenServedFromCacheUntilDeleted() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        when(itemRepository.existsById(1)).thenReturn(true);
+        when(itemRepository.findById(1)).thenReturn(Optional.of(item));
+        when(bookingRepository.findIntervalsOfItem(1, BookingStatus.APPROVED)).thenReturn(List.of(
+                new BookingInterval(1, 1, start, start.plusDays(2))
+        ));
+
+        ItemCalendar calendar = itemService.getCalendar(1, start.plusDays(1), start.plusDays(3));
+        itemService.getCalendar(1, start, start.plusDays(1));
+
+        assertEquals(List.of(new ItemCalendar.Interval(start.plusDays(1), start.plusDays(2))),
+                calendar.getApproved());
+        Mockito.verify(bookingRepository, Mockito.times(1)).findIntervalsOfItem(1, BookingStatus.APPROVED);
+
+        itemService.deleteItem(1);
+        itemService.getCalendar(1, start, start.plusDays(1));
+        Mockito.verify(bookingRepository, Mockito.times(2)).findIntervalsOfItem(1, BookingStatus.APPROVED);
+    }
+
+    @Test
+    void testGetCalendar_whenItemNotFound_thenThrowItemNotFoundException() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+        Exception exception = assertThrows(ItemNotFoundException.class,
+                () -> itemService.getCalendar(99, start, start.plusDays(1)));
+
+        assertEquals("Предмет с id=99 не найден", exception.getMessage());
+    }
+
+    @Test
+    void testGetCalendar_whenPeriodEmpty_thenThrowBookingBadRequestException() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+        assertThrows(BookingBadRequestException.class, () -> itemService.getCalendar(1, start, start));
     }
 
     @Test
@@ -403,7 +563,9 @@ class ItemServiceImplTest {
 
     @Test
     void testGetAll_whenUserNotFound() {
-        when(userRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(itemRepository.getAllByOwnerIdOrderByOwnerId(anyInt(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(userRepository.findSnapshotById(anyInt())).thenReturn(Optional.empty());
         Exception exception = assertThrows(UserNotFoundException.class,
                 () -> itemService.getAll(99, 0, 10));
 
@@ -440,11 +602,70 @@ class ItemServiceImplTest {
         assertEquals(ItemMapper.toItemDto(item1), items.get(0));
         assertEquals(ItemMapper.toItemDto(item2), items.get(1));
     }
-}
-
-
-
 
+    @Test
+    void testGetAll_whenItemsHaveBookingsAndComments_thenJoinThemWithoutPerItemQueries() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        User booker = User.builder()
+                .id(2)
+                .name("booker")
+                .email("booker@test.test")
+                .build();
+        Item item2 = Item.builder()
+                .id(2)
+                .name("item2")
+                .description("desc2")
+                .owner(user)
+                .available(true)
+                .build();
+        Booking lastBooking = Booking.builder()
+                .id(10)
+                .item(item)
+                .booker(booker)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .status(BookingStatus.APPROVED)
+                .build();
+        Booking nextBooking = Booking.builder()
+                .id(11)
+                .item(item2)
+                .booker(booker)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build();
+        Comment comment = Comment.builder()
+                .id(5)
+                .text("comment text")
+                .item(item2)
+                .author(booker)
+                .created(LocalDateTime.now())
+                .build();
+        when(userRepository.findById(anyInt())).thenReturn(Optional.of(user));
+        when(itemRepository.getAllByOwnerIdOrderByOwnerId(1, pageRequest))
+                .thenReturn(new PageImpl<>(List.of(item2, item)));
+        when(commentRepository.findAllByItemIdInOrderByIdDesc(List.of(1, 2))).thenReturn(List.of(comment));
+        when(bookingRepository.findLastBookings(eq(List.of(1, 2)), any(), eq(BookingStatus.APPROVED)))
+                .thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNextBookings(eq(List.of(1, 2)), any(), eq(BookingStatus.APPROVED)))
+                .thenReturn(List.of(nextBooking));
 
+        List<ItemDto> items = new ArrayList<>(itemService.getAll(1, 0, 10));
 
+        assertEquals(2, items.size());
+        assertEquals(1, items.get(0).getId());
+        assertEquals(new ItemDto.BookingInfo(10, 2), items.get(0).getLastBooking());
+        assertNull(items.get(0).getNextBooking());
+        assertTrue(items.get(0).getComments().isEmpty());
+        assertEquals(2, items.get(1).getId());
+        assertNull(items.get(1).getLastBooking());
+        assertEquals(new ItemDto.BookingInfo(11, 2), items.get(1).getNextBooking());
+        assertEquals(1, items.get(1).getComments().size());
+        assertEquals("booker", items.get(1).getComments().iterator().next().getAuthorName());
+        Mockito.verify(commentRepository, Mockito.never()).findAllByItemIdOrderByIdDesc(anyInt());
+    }
 
+    private static UserSnapshot snapshotOf(User user) {
+        return new UserSnapshot(user.getId(), user.getName(), user.getEmail());
+    }
+}
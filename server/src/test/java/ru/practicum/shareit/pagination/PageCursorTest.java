@@ -0,0 +1,48 @@
+package ru.practicum.shareit.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.pagination.exception.WrongCursorException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void testParse_whenEncodedCursor_thenSameLastId() {
+        PageCursor cursor = PageCursor.parse(PageCursor.after(42).encode());
+
+        assertEquals(42, cursor.getLastId());
+        assertEquals(42, cursor.idBefore());
+        assertEquals(42, cursor.idAfter());
+    }
+
+    @Test
+    void testParse_whenEmpty_thenFirstPage() {
+        PageCursor cursor = PageCursor.parse("");
+
+        assertNull(cursor.getLastId());
+        assertEquals(Integer.MAX_VALUE, cursor.idBefore());
+        assertEquals(0, cursor.idAfter());
+    }
+
+    @Test
+    void testParse_whenGarbage_thenThrowWrongCursorException() {
+        assertThrows(WrongCursorException.class, () -> PageCursor.parse("!!"));
+        assertThrows(WrongCursorException.class, () -> PageCursor.parse("YWJj"));
+    }
+
+    @Test
+    void testToResponse_whenSliceHasNext_thenNextCursorPointsToLastElement() {
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        assertEquals(PageCursor.after(3).encode(), PageCursor.toResponse(
+                        new SliceImpl<>(List.of(5, 3), pageRequest, true), Integer::intValue)
+                .getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER));
+        assertFalse(PageCursor.toResponse(new SliceImpl<>(List.of(5, 3), pageRequest, false), Integer::intValue)
+                .getHeaders().containsKey(PageCursor.NEXT_CURSOR_HEADER));
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.pagination;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Каждый постраничный запрос должен обходиться одним SQL-выражением, без отдельного count(*).
+ * Страница размером 1 из двух подходящих строк заставила бы Page посчитать общее количество.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SliceQueryStatementCountTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private final PageRequest firstOfOne = PageRequest.of(0, 1);
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    User owner;
+
+    User booker;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = User.builder()
+                .name("owner")
+                .email("owner@test.test")
+                .build();
+        em.persist(owner);
+        booker = User.builder()
+                .name("booker")
+                .email("booker@test.test")
+                .build();
+        em.persist(booker);
+
+        Item item = Item.builder()
+                .owner(owner)
+                .name("Item one")
+                .description("Desc")
+                .available(true)
+                .build();
+        em.persist(item);
+        em.persist(Item.builder()
+                .owner(owner)
+                .name("Item two")
+                .description("Desc")
+                .available(true)
+                .build());
+
+        for (int i = 0; i < 2; i++) {
+            addBooking(item, now.minusDays(3), now.minusDays(2), BookingStatus.WAITING);
+            addBooking(item, now.minusDays(1), now.plusDays(1), BookingStatus.REJECTED);
+            addBooking(item, now.plusDays(2), now.plusDays(3), BookingStatus.APPROVED);
+            em.persist(ItemRequest.builder()
+                    .requestor(booker)
+                    .description("Request " + i)
+                    .created(now)
+                    .build());
+        }
+        em.flush();
+
+        statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    void testBookerBookings_whenSliced_thenSingleStatement() {
+        int bookerId = booker.getId();
+
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdOrderByIdDesc(bookerId, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndStatusIs(
+                bookerId, BookingStatus.WAITING, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(
+                bookerId, now, now, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndEndBeforeOrderByIdDesc(
+                bookerId, now, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndStartAfterOrderByIdDesc(
+                bookerId, now, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndIdLessThanOrderByIdDesc(
+                bookerId, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndStatusIsAndIdLessThanOrderByIdDesc(
+                bookerId, BookingStatus.REJECTED, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterAndIdLessThanOrderByIdDesc(
+                bookerId, now, now, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndEndBeforeAndIdLessThanOrderByIdDesc(
+                bookerId, now, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByBookerIdAndStartAfterAndIdLessThanOrderByIdDesc(
+                bookerId, now, Integer.MAX_VALUE, firstOfOne));
+    }
+
+    @Test
+    void testOwnerBookings_whenSliced_thenSingleStatement() {
+        int ownerId = owner.getId();
+
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdOrderByIdDesc(ownerId, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndStatusIs(
+                ownerId, BookingStatus.WAITING, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(
+                ownerId, now, now, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByIdDesc(
+                ownerId, now, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByIdDesc(
+                ownerId, now, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndIdLessThanOrderByIdDesc(
+                ownerId, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndStatusIsAndIdLessThanOrderByIdDesc(
+                ownerId, BookingStatus.REJECTED, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository
+                .findAllByItemOwnerIdAndStartBeforeAndEndAfterAndIdLessThanOrderByIdDesc(
+                        ownerId, now, now, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndEndBeforeAndIdLessThanOrderByIdDesc(
+                ownerId, now, Integer.MAX_VALUE, firstOfOne));
+        assertSingleStatement(() -> bookingRepository.findAllByItemOwnerIdAndStartAfterAndIdLessThanOrderByIdDesc(
+                ownerId, now, Integer.MAX_VALUE, firstOfOne));
+    }
+
+    @Test
+    void testItemsAndRequests_whenSliced_thenSingleStatement() {
+        assertSingleStatement(() -> itemRepository.getAllByOwnerIdOrderByOwnerId(owner.getId(), firstOfOne));
+        assertSingleStatement(() -> itemRepository.findAllByOwnerIdAndIdGreaterThanOrderById(
+                owner.getId(), 0, firstOfOne));
+        assertSingleStatement(() -> itemRepository.search("item", firstOfOne));
+        assertSingleStatement(() -> itemRepository.searchAfter("item", 0, firstOfOne));
+        assertSingleStatement(() -> itemRequestRepository.findRequestsCreatedByOthers(
+                owner, firstOfOne));
+        assertSingleStatement(() -> itemRequestRepository.findRequestsCreatedByOthersBefore(
+                owner, Integer.MAX_VALUE, firstOfOne));
+    }
+
+    private void addBooking(Item item, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        em.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private void assertSingleStatement(Supplier<Slice<?>> query) {
+        statistics.clear();
+
+        Slice<?> slice = query.get();
+
+        assertEquals(1, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.request.feed;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestFeedCacheTest {
+
+    ItemRequestRepository itemRequestRepository;
+    RequestFeedCache requestFeed;
+
+    @BeforeEach
+    void setUp() {
+        itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        requestFeed = new RequestFeedCache(itemRequestRepository, 3, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testPage_whenWindowHoldsWholeTable_thenSkipOwnRequests() {
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(List.of(entry(3, 1), entry(2, 2)));
+
+        Slice<RequestFeedEntry> page = requestFeed.page(1, 0, 10).orElseThrow();
+
+        assertEquals(List.of(2), ids(page));
+        assertFalse(page.hasNext());
+        assertEquals(List.of(3), ids(requestFeed.page(2, 0, 10).orElseThrow()));
+        verify(itemRequestRepository, times(1)).findFeed(any(Pageable.class));
+    }
+
+    @Test
+    void testPage_whenPageGoesPastWindow_thenEmpty() {
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(List.of(entry(9, 2), entry(8, 2), entry(7, 2)));
+
+        Slice<RequestFeedEntry> page = requestFeed.page(1, 0, 2).orElseThrow();
+
+        assertEquals(List.of(9, 8), ids(page));
+        assertTrue(page.hasNext());
+        assertTrue(requestFeed.page(1, 2, 2).isEmpty());
+        assertEquals(List.of(8), ids(requestFeed.pageBefore(1, 9, 1).orElseThrow()));
+        assertTrue(requestFeed.pageBefore(1, 8, 1).isEmpty());
+    }
+
+    @Test
+    void testAdd_thenInsertByIdAndDropOldestPastWindow() {
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(List.of(entry(10, 2), entry(5, 2)));
+        requestFeed.page(1, 0, 10);
+
+        requestFeed.add(request(7));
+        requestFeed.add(request(7));
+        requestFeed.add(request(12));
+
+        assertEquals(List.of(12, 10), ids(requestFeed.page(1, 0, 2).orElseThrow()));
+        assertEquals(List.of(10), ids(requestFeed.pageBefore(1, 12, 1).orElseThrow()));
+        assertTrue(requestFeed.pageBefore(1, 10, 1).isEmpty());
+        verify(itemRequestRepository, times(1)).findFeed(any(Pageable.class));
+    }
+
+    @Test
+    void testPage_whenWindowExpired_thenReloadAndSeeRequestsWrittenElsewhere() {
+        requestFeed = new RequestFeedCache(itemRequestRepository, 3, Duration.ZERO);
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(List.of(entry(5, 2)))
+                .thenReturn(List.of(entry(6, 3), entry(5, 2)));
+
+        assertEquals(List.of(5), ids(requestFeed.page(1, 0, 10).orElseThrow()));
+        assertEquals(List.of(6, 5), ids(requestFeed.page(1, 0, 10).orElseThrow()));
+        verify(itemRequestRepository, times(2)).findFeed(any(Pageable.class));
+    }
+
+    private static List<Integer> ids(Slice<RequestFeedEntry> page) {
+        return page.getContent().stream()
+                .map(RequestFeedEntry::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static RequestFeedEntry entry(int id, int requestorId) {
+        return new RequestFeedEntry(id, "Запрос " + id, LocalDateTime.now(), requestorId);
+    }
+
+    private static ItemRequest request(int id) {
+        return ItemRequest.builder()
+                .id(id)
+                .description("Запрос " + id)
+                .created(LocalDateTime.now())
+                .requestor(User.builder().id(2).build())
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.shareit.request.matching;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemDocument;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class ItemMatcherTest {
+
+    ItemRepository itemRepository;
+    ItemSearchIndex itemSearchIndex;
+    ItemMatcher itemMatcher;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = Mockito.mock(ItemRepository.class);
+        itemSearchIndex = new ItemSearchIndex(itemRepository);
+        itemMatcher = new ItemMatcher(itemSearchIndex);
+    }
+
+    @Test
+    void testMatch_whenIndexNotReady_thenEmpty() {
+        assertTrue(itemMatcher.match("Нужна стремянка", 9).isEmpty());
+    }
+
+    @Test
+    void testMatch_whenWordIsInflected_thenFindItemAndSkipUnavailable() {
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1, "Стремянка", "Алюминиевая, три ступени", true, null, null),
+                new ItemDocument(2, "Стремянка", "Сломана", false, null, null),
+                new ItemDocument(3, "Палатка", "Двухместная", true, null, null)));
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(1), ids(itemMatcher.match("Нужна стремянку на выходные", 9)));
+    }
+
+    @Test
+    void testMatch_whenWordsDifferInRarity_thenRareWordWeighsMore() {
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1, "Дрель", "Аккумуляторная", true, null, null),
+                new ItemDocument(2, "Шуруповёрт", "Аккумуляторный", true, null, null),
+                new ItemDocument(3, "Фонарь", "Аккумуляторный", true, null, null),
+                new ItemDocument(4, "Дрель", "Сетевая", true, null, null)));
+        itemSearchIndex.rebuild();
+
+        List<ItemMatch> matches = itemMatcher.match("Аккумуляторная дрель", 9);
+
+        assertEquals(List.of(1, 4, 2, 3), ids(matches));
+        assertTrue(matches.get(1).getScore() > matches.get(2).getScore());
+    }
+
+    @Test
+    void testMatch_whenItemOwnedByRequestor_thenNotSuggested() {
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1, "Стремянка", "Алюминиевая", true, null, 9),
+                new ItemDocument(2, "Стремянка", "Деревянная", true, null, 8)));
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(2), ids(itemMatcher.match("Нужна стремянка", 9)));
+        assertEquals(List.of(1), ids(itemMatcher.match("Нужна стремянка", 8)));
+    }
+
+    @Test
+    void testMatch_whenWordInMostItems_thenSkipWordAndMatchByRareOne() {
+        itemMatcher = new ItemMatcher(itemSearchIndex, 2);
+        when(itemRepository.findAllDocuments()).thenReturn(List.of(
+                new ItemDocument(1, "Дрель", "Аккумуляторная", true, null, null),
+                new ItemDocument(2, "Шуруповёрт", "Аккумуляторный", true, null, null),
+                new ItemDocument(3, "Фонарь", "Аккумуляторный", true, null, null),
+                new ItemDocument(4, "Палатка", "Двухместная", true, null, null)));
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(1), ids(itemMatcher.match("Аккумуляторная дрель", 9)));
+        assertTrue(itemMatcher.match("Аккумуляторный", 9).isEmpty());
+    }
+
+    private static List<Integer> ids(List<ItemMatch> matches) {
+        return matches.stream()
+                .map(ItemMatch::getItemId)
+                .collect(Collectors.toList());
+    }
+}
@@ -5,15 +5,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 class ItemRequestRepositoryTest {
@@ -50,7 +53,7 @@ class ItemRequestRepositoryTest {
     @Transactional
     @Test
     void testFindRequestsCreatedByOthersOrderByCreated_ifOnlyOneRequest() {
-        Page<ItemRequest> resultPage = itemRequestRepository.findRequestsCreatedByOthersOrderByCreated(user, pageable);
+        Slice<ItemRequest> resultPage = itemRequestRepository.findRequestsCreatedByOthers(user, pageable);
 
         assertEquals(0, resultPage.getContent().size());
     }
@@ -71,7 +74,7 @@ class ItemRequestRepositoryTest {
                 .build();
 
         em.persist(itemRequest2);
-        Page<ItemRequest> resultPage = itemRequestRepository.findRequestsCreatedByOthersOrderByCreated(user, pageable);
+        Slice<ItemRequest> resultPage = itemRequestRepository.findRequestsCreatedByOthers(user, pageable);
 
         assertEquals(1, resultPage.getContent().size());
         assertEquals("Test trest", resultPage.getContent().get(0).getDescription());
@@ -102,10 +105,44 @@ class ItemRequestRepositoryTest {
         em.persist(itemRequest2);
         em.persist(itemRequest3);
 
-        Page<ItemRequest> resultPage = itemRequestRepository.findRequestsCreatedByOthersOrderByCreated(user, pageable);
+        Slice<ItemRequest> resultPage = itemRequestRepository.findRequestsCreatedByOthers(user, pageable);
 
         assertEquals(1, resultPage.getContent().size());
         assertEquals("Test req1", resultPage.getContent().get(0).getDescription());
         assertEquals(user2, resultPage.getContent().get(0).getRequestor());
     }
-}
\ No newline at end of file
+
+    @Transactional
+    @Test
+    void testFindRequestsCreatedByOthersBefore_thenNewestFirstAfterCursor() {
+        User otherUser = User.builder()
+                .name("Other")
+                .email("Other@test.test")
+                .build();
+        em.persist(otherUser);
+        ItemRequest older = ItemRequest.builder()
+                .created(LocalDateTime.now())
+                .description("Older")
+                .requestor(otherUser)
+                .build();
+        em.persist(older);
+        ItemRequest newer = ItemRequest.builder()
+                .created(LocalDateTime.now())
+                .description("Newer")
+                .requestor(otherUser)
+                .build();
+        em.persist(newer);
+
+        Slice<ItemRequest> firstPage = itemRequestRepository.findRequestsCreatedByOthersBefore(
+                user, Integer.MAX_VALUE, PageRequest.of(0, 1));
+        Slice<ItemRequest> secondPage = itemRequestRepository.findRequestsCreatedByOthersBefore(
+                user, firstPage.getContent().get(0).getId(), PageRequest.of(0, 1));
+
+        assertEquals(List.of(newer), firstPage.getContent());
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(older), secondPage.getContent());
+        assertFalse(secondPage.hasNext());
+        assertEquals(0, itemRequestRepository.findRequestsCreatedByOthersBefore(
+                user, older.getId(), PageRequest.of(0, 1)).getNumberOfElements());
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.request.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemSuggestionDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemSuggestion;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class ItemSuggestionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ItemSuggestionRepository itemSuggestionRepository;
+
+    @Test
+    void testFindSuggestions_thenOnlyAvailableItemsByScore() {
+        User user = em.persist(User.builder().name("Test").email("Test@test.test").build());
+        ItemRequest request = em.persist(ItemRequest.builder()
+                .requestor(user).description("Нужна стремянка").created(LocalDateTime.now()).build());
+        ItemRequest otherRequest = em.persist(ItemRequest.builder()
+                .requestor(user).description("Нужна палатка").created(LocalDateTime.now()).build());
+        Item ladder = em.persist(Item.builder()
+                .owner(user).name("Стремянка").description("Три ступени").available(true).build());
+        Item stool = em.persist(Item.builder()
+                .owner(user).name("Табурет-стремянка").description("Две ступени").available(true).build());
+        Item broken = em.persist(Item.builder()
+                .owner(user).name("Стремянка").description("Сломана").available(false).build());
+        em.persist(ItemSuggestion.builder().request(request).item(stool).score(0.5).build());
+        em.persist(ItemSuggestion.builder().request(request).item(ladder).score(1.5).build());
+        em.persist(ItemSuggestion.builder().request(request).item(broken).score(1.5).build());
+        em.persist(ItemSuggestion.builder().request(otherRequest).item(ladder).score(0.1).build());
+
+        assertEquals(List.of(
+                        new ItemSuggestionDto(ladder.getId(), "Стремянка", "Три ступени", 1.5),
+                        new ItemSuggestionDto(stool.getId(), "Табурет-стремянка", "Две ступени", 0.5)),
+                itemSuggestionRepository.findSuggestions(request.getId()));
+    }
+}
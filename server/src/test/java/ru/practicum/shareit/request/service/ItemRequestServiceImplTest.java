@@ -2,18 +2,29 @@ package ru.practicum.shareit.request.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemDocument;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemSuggestionDto;
 import ru.practicum.shareit.request.exception.RequestNotFoundException;
+import ru.practicum.shareit.request.feed.RequestFeedCache;
+import ru.practicum.shareit.request.feed.RequestFeedEntry;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.matching.ItemMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemSuggestion;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.ItemSuggestionRepository;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.cache.UserSnapshot;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
@@ -24,10 +35,14 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class ItemRequestServiceImplTest {
@@ -35,6 +50,8 @@ class ItemRequestServiceImplTest {
     ItemRequestService itemRequestService;
     ItemRequestRepository itemRequestRepository;
     ItemRepository itemRepository;
+    ItemSuggestionRepository itemSuggestionRepository;
+    ItemSearchIndex itemSearchIndex;
     UserRepository userRepository;
     Item item;
     ItemDto itemDto;
@@ -47,10 +64,16 @@ class ItemRequestServiceImplTest {
         userRepository = Mockito.mock(UserRepository.class);
         itemRepository = Mockito.mock(ItemRepository.class);
         itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        itemSuggestionRepository = Mockito.mock(ItemSuggestionRepository.class);
+        itemSearchIndex = new ItemSearchIndex(itemRepository);
         itemRequestService = new ItemRequestServiceImpl(
                 userRepository,
                 itemRequestRepository,
-                itemRepository
+                itemRepository,
+                new UserCache(userRepository),
+                new RequestFeedCache(itemRequestRepository),
+                new ItemMatcher(itemSearchIndex),
+                itemSuggestionRepository
         );
         user = User.builder()
                 .id(1)
@@ -78,22 +101,20 @@ class ItemRequestServiceImplTest {
     }
 
     @Test
-    void testAddItem_whenUserNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.empty());
-
-        UserNotFoundException thrown = assertThrows(
-                UserNotFoundException.class,
-                () -> itemRequestService.addItem(99, itemRequest)
-        );
+    void testAddItem_whenUserNotFound_thenForeignKeyViolationIsPropagated() {
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(User.builder().id(99).build());
+        when(itemRequestRepository.save(any()))
+                .thenThrow(new DataIntegrityViolationException("requests_users_user_id_fk"));
 
-        assertTrue(thrown.getMessage().contains("Пользователь с id=99 не найден"));
+        assertThrows(DataIntegrityViolationException.class, () -> itemRequestService.addItem(99, itemRequest));
+        verify(userRepository, never()).findById(anyInt());
     }
 
     @Test
     void testAddItem_whenAllCorrect_thenReturnItemRequest() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
         when(itemRequestRepository.save(any()))
                 .thenReturn(itemRequest);
 
@@ -102,9 +123,53 @@ class ItemRequestServiceImplTest {
         assertEquals(itemRequest, newItemRequest);
     }
 
+    @Test
+    void testAddItem_whenAvailableItemMatches_thenStoreSuggestion() {
+        when(itemRepository.findAllDocuments())
+                .thenReturn(List.of(new ItemDocument(5, "Стремянка", "Три ступени", true, null, null),
+                        new ItemDocument(6, "Палатка", "Двухместная", true, null, null)));
+        itemSearchIndex.rebuild();
+        itemRequest.setDescription("Нужна стремянка на выходные");
+        Item ladder = Item.builder().id(5).build();
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
+        when(itemRepository.findAllById(List.of(5)))
+                .thenReturn(List.of(ladder));
+        when(itemRequestRepository.save(any()))
+                .thenReturn(itemRequest);
+
+        itemRequestService.addItem(1, itemRequest);
+
+        ArgumentCaptor<List<ItemSuggestion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemSuggestionRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(ladder, captor.getValue().get(0).getItem());
+        assertEquals(itemRequest, captor.getValue().get(0).getRequest());
+    }
+
+    @Test
+    void testAddItem_whenMatchedItemAlreadyDeleted_thenSkipSuggestion() {
+        when(itemRepository.findAllDocuments())
+                .thenReturn(List.of(new ItemDocument(5, "Стремянка", "Три ступени", true, null, null)));
+        itemSearchIndex.rebuild();
+        itemRequest.setDescription("Нужна стремянка на выходные");
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
+        when(itemRepository.findAllById(List.of(5)))
+                .thenReturn(List.of());
+        when(itemRequestRepository.save(any()))
+                .thenReturn(itemRequest);
+
+        assertEquals(itemRequest, itemRequestService.addItem(1, itemRequest));
+
+        ArgumentCaptor<List<ItemSuggestion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemSuggestionRepository).saveAll(captor.capture());
+        assertTrue(captor.getValue().isEmpty());
+    }
+
     @Test
     void testFindAllByUserId_whenUserNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
                 .thenReturn(Optional.empty());
 
         UserNotFoundException thrown = assertThrows(
@@ -119,8 +184,8 @@ class ItemRequestServiceImplTest {
     void testFindAllByUserId_whenAllCorrect_thenReturnListOfItemRequestDto() {
         List<ItemRequest> itemRequestList = new ArrayList<>();
         itemRequestList.add(itemRequest);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
         when(itemRequestRepository.findAllByRequestorIdOrderByCreated(anyInt()))
                 .thenReturn(itemRequestList);
 
@@ -130,9 +195,34 @@ class ItemRequestServiceImplTest {
                 .collect(Collectors.toList()), new ArrayList<>(itemRequests));
     }
 
+    @Test
+    void testFindAllByUserId_whenRequestsHaveItems_thenLoadItemsWithOneQuery() {
+        ItemRequest otherRequest = ItemRequest.builder()
+                .id(2)
+                .created(LocalDateTime.now())
+                .description("Other")
+                .requestor(user)
+                .build();
+        item.setRequest(otherRequest);
+        when(itemRequestRepository.findAllByRequestorIdOrderByCreated(anyInt()))
+                .thenReturn(List.of(itemRequest, otherRequest));
+        when(itemRepository.findAllByRequestRequestorId(99))
+                .thenReturn(List.of(item));
+
+        List<ItemRequestDto> itemRequests = new ArrayList<>(itemRequestService.findAllByUserId(99));
+
+        assertTrue(itemRequests.get(0).getItems().isEmpty());
+        assertEquals(List.of(item.getId()), itemRequests.get(1).getItems().stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList()));
+        verify(itemRepository, never()).findAllByRequestId(anyInt());
+    }
+
     @Test
     void testFindAll_whenUserNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
+        when(itemRequestRepository.findRequestsCreatedByOthers(any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
                 .thenReturn(Optional.empty());
 
         UserNotFoundException thrown = assertThrows(
@@ -145,23 +235,72 @@ class ItemRequestServiceImplTest {
 
     @Test
     void testFindAll_whenAllCorrect_thenReturnListOfItemRequestDto() {
-        List<ItemRequest> itemRequestList = new ArrayList<>();
-        itemRequestList.add(itemRequest);
-        Page<ItemRequest> page = new PageImpl<>(itemRequestList);
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
-        when(itemRequestRepository.findRequestsCreatedByOthersOrderByCreated(any(), any(Pageable.class)))
-                .thenReturn(page);
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(List.of(entryOf(itemRequest)));
 
         Collection<ItemRequestDto> itemRequests = itemRequestService.findAll(99, 0, 10);
 
-        assertEquals(page.getContent().stream().map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList()), new ArrayList<>(itemRequests));
+        assertEquals(List.of(ItemRequestMapper.toItemRequestDto(itemRequest)), new ArrayList<>(itemRequests));
+        verify(itemRequestRepository, never()).findRequestsCreatedByOthers(any(), any(Pageable.class));
+    }
+
+    @Test
+    void testFindAll_whenPageIsPastCachedFeed_thenReadFromRepository() {
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(IntStream.range(0, 1_000)
+                        .mapToObj(i -> new RequestFeedEntry(2_000 - i, "Own", LocalDateTime.now(), 99))
+                        .collect(Collectors.toList()));
+        when(itemRequestRepository.findRequestsCreatedByOthers(any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(itemRequest)));
+
+        Collection<ItemRequestDto> itemRequests = itemRequestService.findAll(99, 0, 10);
+
+        assertEquals(List.of(ItemRequestMapper.toItemRequestDto(itemRequest)), new ArrayList<>(itemRequests));
+    }
+
+    @Test
+    void testFindAll_whenRequestAdded_thenFeedShowsItWithoutReload() {
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(userRepository.getReferenceById(Mockito.anyInt()))
+                .thenReturn(user);
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(List.of());
+        when(itemRequestRepository.save(any()))
+                .thenReturn(itemRequest);
+
+        assertTrue(itemRequestService.findAll(99, 0, 10).isEmpty());
+        itemRequestService.addItem(1, itemRequest);
+
+        assertEquals(List.of(ItemRequestMapper.toItemRequestDto(itemRequest)),
+                new ArrayList<>(itemRequestService.findAll(99, 0, 10)));
+        assertTrue(itemRequestService.findAll(1, 0, 10).isEmpty());
+        verify(itemRequestRepository, times(1)).findFeed(any(Pageable.class));
+    }
+
+    @Test
+    void testFindAll_whenRequestsHaveItems_thenLoadItemsForWholePage() {
+        item.setRequest(itemRequest);
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(itemRequestRepository.findFeed(any(Pageable.class)))
+                .thenReturn(List.of(entryOf(itemRequest)));
+        when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())))
+                .thenReturn(List.of(item));
+
+        List<ItemRequestDto> itemRequests = new ArrayList<>(itemRequestService.findAll(99, 0, 10));
+
+        assertEquals(item.getId(), itemRequests.get(0).getItems().get(0).getId());
+        verify(itemRepository, never()).findAllByRequestId(anyInt());
     }
 
     @Test
     void testFindById_whenUserNotFound_thenThrowUserNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
                 .thenReturn(Optional.empty());
 
         UserNotFoundException thrown = assertThrows(
@@ -174,9 +313,9 @@ class ItemRequestServiceImplTest {
 
     @Test
     void testFindById_whenItemRequestNotFound_thenThrowRequestNotFoundException() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
-        when(itemRequestRepository.findById(Mockito.anyInt()))
+        when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(snapshotOf(user)));
+        when(itemRequestRepository.findByIdIfUserExists(Mockito.anyInt(), Mockito.anyInt()))
                 .thenReturn(Optional.empty());
 
         RequestNotFoundException thrown = assertThrows(
@@ -189,13 +328,26 @@ class ItemRequestServiceImplTest {
 
     @Test
     void testFindById_whenAllCorrect_thenReturnItemRequestDto() {
-        when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
-        when(itemRequestRepository.findById(Mockito.anyInt()))
+        when(itemRequestRepository.findByIdIfUserExists(Mockito.anyInt(), Mockito.anyInt()))
                 .thenReturn(Optional.of(itemRequest));
 
+        List<ItemSuggestionDto> suggestions = List.of(new ItemSuggestionDto(5, "Стремянка", "Три ступени", 1.5));
+        when(itemSuggestionRepository.findSuggestions(1))
+                .thenReturn(suggestions);
+
         ItemRequestDto foundedItemDtoRequest = itemRequestService.findById(99, 1);
 
-        assertEquals(ItemRequestMapper.toItemRequestDto(itemRequest), foundedItemDtoRequest);
+        ItemRequestDto expected = ItemRequestMapper.toItemRequestDto(itemRequest);
+        expected.setSuggestions(suggestions);
+        assertEquals(expected, foundedItemDtoRequest);
+    }
+
+    private static RequestFeedEntry entryOf(ItemRequest itemRequest) {
+        return new RequestFeedEntry(itemRequest.getId(), itemRequest.getDescription(), itemRequest.getCreated(),
+                itemRequest.getRequestor().getId());
+    }
+
+    private static UserSnapshot snapshotOf(User user) {
+        return new UserSnapshot(user.getId(), user.getName(), user.getEmail());
     }
-}
\ No newline at end of file
+}
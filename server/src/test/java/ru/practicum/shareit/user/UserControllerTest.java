@@ -6,10 +6,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserSnapshot;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -18,26 +24,28 @@ import ru.practicum.shareit.user.service.UserService;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserControllerTest {
     @Mock
     private UserService userService;
 
+    @Spy
+    private ObjectMapper mapper = new ObjectMapper();
+
     @InjectMocks
     private UserController controller;
 
-    private final ObjectMapper mapper = new ObjectMapper();
-
     private MockMvc mvc;
     User user;
     UserDto userDto;
@@ -203,4 +211,55 @@ class UserControllerTest {
 
         assertEquals(mapper.writeValueAsString(List.of(userDto, UserMapper.toUserDto(user2))), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAll_whenAcceptAnything_thenReturnJsonList() throws Exception {
+        when(userService.getAll())
+                .thenReturn(List.of(user));
+
+        mvc.perform(get("/users")
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].id", is(user.getId())));
+    }
+
+    @Test
+    void testGetAll_whenCursorPassed_thenReturnPageWithNextCursor() throws Exception {
+        when(userService.getAll(PageCursor.first(), 1))
+                .thenReturn(new SliceImpl<>(List.of(user), PageRequest.of(0, 1), true));
+
+        mvc.perform(get("/users")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.after(user.getId()).encode()))
+                .andExpect(jsonPath("$[0].id", is(user.getId())));
+    }
+
+    @Test
+    void testStreamAll_whenAcceptNdjson_thenWriteOneUserPerLine() throws Exception {
+        UserSnapshot second = new UserSnapshot(2, "Test 2", "email");
+        doAnswer(invocation -> {
+            Consumer<UserSnapshot> action = invocation.getArgument(0);
+            action.accept(new UserSnapshot(user.getId(), user.getName(), user.getEmail()));
+            action.accept(second);
+            return null;
+        }).when(userService).forEach(any());
+
+        MvcResult started = mvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String result = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(mapper.writeValueAsString(userDto) + "\n"
+                + mapper.writeValueAsString(UserMapper.toUserDto(second)) + "\n", result);
+    }
+}
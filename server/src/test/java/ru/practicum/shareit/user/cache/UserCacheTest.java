@@ -0,0 +1,91 @@
+package ru.practicum.shareit.user.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+    UserRepository userRepository;
+    UserCache cache;
+    UserSnapshot user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        cache = new UserCache(userRepository, 2);
+        user = new UserSnapshot(1, "Test", "Test@test.test");
+        when(userRepository.findSnapshotById(1)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void testFind_whenCalledTwice_thenLoadOnceAndCountHit() {
+        assertEquals(Optional.of(user), cache.find(1));
+        assertEquals(Optional.of(user), cache.find(1));
+
+        verify(userRepository, times(1)).findSnapshotById(1);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testExists_whenUserUnknown_thenRememberAbsence() {
+        assertFalse(cache.exists(99));
+        assertFalse(cache.exists(99));
+
+        verify(userRepository, times(1)).findSnapshotById(99);
+    }
+
+    @Test
+    void testFind_whenFull_thenEvictOtherEntry() {
+        cache.find(1);
+        cache.find(2);
+        cache.find(3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        cache.find(3);
+        assertEquals(1, cache.hitCount());
+    }
+
+    @Test
+    void testEvict_whenInTransaction_thenEntryKeptUntilCompletion() {
+        cache.find(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(1);
+            cache.find(1);
+            verify(userRepository, times(1)).findSnapshotById(1);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        cache.find(1);
+        verify(userRepository, times(2)).findSnapshotById(1);
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void testFind_whenEvictedWhileLoading_thenLoadedUserNotCached() {
+        when(userRepository.findSnapshotById(1)).thenAnswer(invocation -> {
+            cache.evict(1);
+            return Optional.of(user);
+        });
+
+        assertEquals(Optional.of(user), cache.find(1));
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.putCount());
+    }
+}
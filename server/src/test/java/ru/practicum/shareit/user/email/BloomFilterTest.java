@@ -0,0 +1,38 @@
+package ru.practicum.shareit.user.email;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void testMightContain_whenValueAdded_thenAlwaysTrue() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        IntStream.range(0, 1_000).forEach(i -> filter.put("user" + i + "@test.test"));
+
+        assertTrue(IntStream.range(0, 1_000).allMatch(i -> filter.mightContain("user" + i + "@test.test")));
+    }
+
+    @Test
+    void testMightContain_whenValueNotAdded_thenFalsePositivesAreRare() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        IntStream.range(0, 1_000).forEach(i -> filter.put("user" + i + "@test.test"));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain("other" + i + "@test.test"))
+                .count();
+
+        assertTrue(falsePositives < 300, "Ложноположительных ответов: " + falsePositives);
+    }
+
+    @Test
+    void testMightContain_whenEmpty_thenFalse() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertFalse(filter.mightContain("user@test.test"));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.user.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.user.cache.UserSnapshot;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testSaveAndFlush_whenEmailTaken_thenViolationNamesEmailConstraint() {
+        userRepository.saveAndFlush(User.builder().name("first").email("same@test.test").build());
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(User.builder().name("second").email("same@test.test").build()));
+
+        assertTrue(exception.getMostSpecificCause().getMessage().toLowerCase().contains("users_email_uq"));
+    }
+
+    @Test
+    void testFindAllEmails() {
+        userRepository.saveAndFlush(User.builder().name("first").email("first@test.test").build());
+
+        assertEquals(List.of("first@test.test"), userRepository.findAllEmails());
+    }
+
+    @Test
+    void testFindAllByIdGreaterThanOrderById() {
+        User first = userRepository.save(User.builder().name("first").email("first@test.test").build());
+        User second = userRepository.save(User.builder().name("second").email("second@test.test").build());
+        User third = userRepository.save(User.builder().name("third").email("third@test.test").build());
+
+        Slice<User> page = userRepository.findAllByIdGreaterThanOrderById(first.getId(), PageRequest.of(0, 1));
+
+        assertEquals(List.of(second), page.getContent());
+        assertTrue(page.hasNext());
+        assertEquals(List.of(third),
+                userRepository.findAllByIdGreaterThanOrderById(second.getId(), PageRequest.of(0, 1)).getContent());
+    }
+
+    @Test
+    void testStreamAll() {
+        User first = userRepository.save(User.builder().name("first").email("first@test.test").build());
+        User second = userRepository.save(User.builder().name("second").email("second@test.test").build());
+        userRepository.flush();
+
+        try (Stream<UserSnapshot> users = userRepository.streamAll()) {
+            assertEquals(List.of(new UserSnapshot(first.getId(), "first", "first@test.test"),
+                            new UserSnapshot(second.getId(), "second", "second@test.test")),
+                    users.collect(Collectors.toList()));
+        }
+    }
+}
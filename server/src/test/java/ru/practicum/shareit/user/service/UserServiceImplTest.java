@@ -4,12 +4,22 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.cache.UserCache;
+import ru.practicum.shareit.user.cache.UserSnapshot;
+import ru.practicum.shareit.user.email.RegisteredEmailFilter;
 import ru.practicum.shareit.user.exception.UserAlreadyExistsException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +27,7 @@ class UserServiceImplTest {
 
     UserService userService;
     UserRepository userRepository;
+    RegisteredEmailFilter registeredEmailFilter;
 
     User user;
     User user2;
@@ -24,7 +35,8 @@ class UserServiceImplTest {
     @BeforeEach
     void setUp() {
         userRepository = Mockito.mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        registeredEmailFilter = new RegisteredEmailFilter(userRepository);
+        userService = new UserServiceImpl(userRepository, new UserCache(userRepository), registeredEmailFilter);
         user = User.builder()
                 .id(1)
                 .name("Test")
@@ -39,7 +51,7 @@ class UserServiceImplTest {
 
     @Test
     void testAddUser_whenCorrect_thenAddUser() {
-        Mockito.when(userRepository.save(Mockito.any(User.class)))
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
                 .thenReturn(user);
 
         User foundUser = userService.addUser(user);
@@ -55,7 +67,7 @@ class UserServiceImplTest {
         Mockito.when(userRepository.findByEmail(Mockito.anyString()))
                 .thenReturn(user);
 
-        Mockito.when(userRepository.save(Mockito.any(User.class)))
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
                 .thenThrow(UserAlreadyExistsException.class);
 
         UserAlreadyExistsException thrown = assertThrows(
@@ -67,6 +79,61 @@ class UserServiceImplTest {
         Mockito.verify(userRepository, Mockito.times(1)).findByEmail(user.getEmail());
     }
 
+    @Test
+    void testAddUser_whenFilterSaysEmailIsFree_thenInsertWithoutLookup() {
+        Mockito.when(userRepository.findAllEmails())
+                .thenReturn(List.of(user2.getEmail()));
+        registeredEmailFilter.rebuild();
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
+                .thenReturn(user);
+
+        userService.addUser(user);
+
+        Mockito.verify(userRepository, Mockito.never()).findByEmail(Mockito.anyString());
+        assertTrue(registeredEmailFilter.mightBeTaken(user.getEmail()));
+    }
+
+    @Test
+    void testAddUser_whenEmailConstraintViolated_thenThrowUserAlreadyExistsException() {
+        registeredEmailFilter.rebuild();
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("Unique index or primary key violation: \"PUBLIC.USERS_EMAIL_UQ_INDEX_4\"")));
+
+        UserAlreadyExistsException thrown = assertThrows(
+                UserAlreadyExistsException.class,
+                () -> userService.addUser(user)
+        );
+
+        assertEquals("Пользователь с почтой=Test@test.test уже существует", thrown.getMessage());
+    }
+
+    @Test
+    void testAddUser_whenEmailConstraintViolatedAndDefaultLocaleTurkish_thenThrowUserAlreadyExistsException() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            registeredEmailFilter.rebuild();
+            Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
+                    .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                            new SQLException("Unique index or primary key violation: \"PUBLIC.USERS_EMAIL_UQ_INDEX_4\"")));
+
+            assertThrows(UserAlreadyExistsException.class, () -> userService.addUser(user));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void testAddUser_whenOtherConstraintViolated_thenRethrow() {
+        registeredEmailFilter.rebuild();
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("NULL not allowed for column \"NAME\"")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.addUser(user));
+    }
+
     @Test
     void testUpdateUser_whenUserNotFound_thenThrowUserNotFoundException() {
         Mockito.when(userRepository.findById(Mockito.anyInt()))
@@ -118,7 +185,7 @@ class UserServiceImplTest {
         Mockito.when(userRepository.findById(Mockito.anyInt()))
                 .thenReturn(Optional.of(user));
 
-        Mockito.when(userRepository.save(Mockito.any(User.class)))
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
                 .thenReturn(expectedUser);
 
         user.setName("New");
@@ -138,7 +205,7 @@ class UserServiceImplTest {
         Mockito.when(userRepository.findById(Mockito.anyInt()))
                 .thenReturn(Optional.of(user));
 
-        Mockito.when(userRepository.save(Mockito.any(User.class)))
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class)))
                 .thenReturn(expectedUser);
 
         user.setEmail("New@test.test");
@@ -150,7 +217,7 @@ class UserServiceImplTest {
 
     @Test
     void testGetUser_whenUserNotFound_thenThrowUserNotFoundException() {
-        Mockito.when(userRepository.findById(Mockito.anyInt()))
+        Mockito.when(userRepository.findSnapshotById(Mockito.anyInt()))
                 .thenReturn(Optional.empty());
 
         UserNotFoundException thrown = assertThrows(
@@ -162,14 +229,39 @@ class UserServiceImplTest {
 
     @Test
     void testGetUser_whenUserIsFound_thenReturnUser() {
-        Mockito.when(userRepository.findById(Mockito.anyInt()))
-                .thenReturn(Optional.of(user));
+        Mockito.when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(new UserSnapshot(user.getId(), user.getName(), user.getEmail())));
 
         User returnedUser = userService.getUser(user.getId());
 
         assertEquals(user, returnedUser);
     }
 
+    @Test
+    void testGetUser_whenCalledTwice_thenReadRepositoryOnce() {
+        Mockito.when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(new UserSnapshot(user.getId(), user.getName(), user.getEmail())));
+
+        userService.getUser(user.getId());
+        userService.getUser(user.getId());
+
+        Mockito.verify(userRepository, Mockito.times(1)).findSnapshotById(user.getId());
+    }
+
+    @Test
+    void testUpdateUser_whenUserCached_thenGetUserReturnsNewName() {
+        Mockito.when(userRepository.findSnapshotById(Mockito.anyInt()))
+                .thenReturn(Optional.of(new UserSnapshot(user.getId(), user.getName(), user.getEmail())))
+                .thenReturn(Optional.of(new UserSnapshot(user.getId(), "New name", user.getEmail())));
+        Mockito.when(userRepository.findById(Mockito.anyInt()))
+                .thenReturn(Optional.of(user));
+        userService.getUser(user.getId());
+
+        userService.updateUser(User.builder().id(user.getId()).name("New name").build());
+
+        assertEquals("New name", userService.getUser(user.getId()).getName());
+    }
+
     @Test
     void testDeleteUser_whenUserNotFound_thenThrowUserNotFoundException() {
         Mockito.when(userRepository.findById(Mockito.anyInt()))
@@ -222,4 +314,26 @@ class UserServiceImplTest {
         assertEquals(user, new ArrayList<>(userList).get(0));
         assertEquals(user2, new ArrayList<>(userList).get(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAll_whenCursorPassed_thenReadUsersAfterCursor() {
+        Slice<User> page = new SliceImpl<>(List.of(user2));
+        Mockito.when(userRepository.findAllByIdGreaterThanOrderById(1, PageRequest.of(0, 10)))
+                .thenReturn(page);
+
+        assertEquals(page, userService.getAll(PageCursor.after(1), 10));
+    }
+
+    @Test
+    void testForEach_thenPassEveryStreamedUser() {
+        UserSnapshot first = new UserSnapshot(1, "Test", "Test@test.test");
+        UserSnapshot second = new UserSnapshot(2, "Test2", "Test2@test.test");
+        Mockito.when(userRepository.streamAll())
+                .thenReturn(Stream.of(first, second));
+
+        List<UserSnapshot> result = new ArrayList<>();
+        userService.forEach(result::add);
+
+        assertEquals(List.of(first, second), result);
+    }
+}